@@ -0,0 +1,170 @@
+package com.stori.rule.benchmark;
+
+import com.stori.rule.dto.EdgeDto;
+import com.stori.rule.dto.GraphDto;
+import com.stori.rule.dto.NodeDto;
+import com.stori.rule.entity.RulePackage;
+import com.stori.rule.entity.RuleVariable;
+import com.stori.rule.mapper.RulePackageMapper;
+import com.stori.rule.mapper.RuleVariableMapper;
+import com.stori.rule.service.converter.NodeConverter;
+import com.stori.rule.service.converter.impl.ActionNodeConverter;
+import com.stori.rule.service.converter.impl.DecisionNodeConverter;
+import com.stori.rule.service.converter.impl.StartNodeConverter;
+import com.stori.rule.service.impl.RuleConverterServiceImpl;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Synthetic rule graphs and offline service wiring shared by the benchmarks.
+ * <p>
+ * A graph of n decisions is a chain START -> D0 -> D1 ... where the true branch of each decision goes
+ * through an action incrementing "score" before the next decision, so it has 2n + 1 nodes.
+ */
+public final class BenchmarkFixtures {
+
+    public static final String PACKAGE_CODE = "bench";
+    public static final String SCORE = "score";
+    public static final int THRESHOLD = 50;
+
+    private BenchmarkFixtures() {
+    }
+
+    public static GraphDto decisionChain(int decisions) {
+        List<NodeDto> nodes = new ArrayList<>();
+        List<EdgeDto> edges = new ArrayList<>();
+        nodes.add(node("start", "START", "Start"));
+        if (decisions > 0) {
+            edges.add(edge("start", "d00000", null));
+        }
+
+        for (int i = 0; i < decisions; i++) {
+            String decision = String.format("d%05d", i);
+            String action = String.format("a%05d", i);
+            String next = i + 1 < decisions ? String.format("d%05d", i + 1) : null;
+
+            NodeDto decisionNode = node(decision, "DECISION", "Check " + i);
+            Map<String, Object> condition = new LinkedHashMap<>();
+            condition.put("parameter", variableCode(i));
+            condition.put("operator", ">");
+            condition.put("value", THRESHOLD);
+            decisionNode.getData().put("conditions", new ArrayList<>(Arrays.asList(condition)));
+            decisionNode.getData().put("conditionLogic", "AND");
+            nodes.add(decisionNode);
+
+            NodeDto actionNode = node(action, "ACTION", "Score " + i);
+            Map<String, Object> assignment = new LinkedHashMap<>();
+            assignment.put("targetParameter", SCORE);
+            assignment.put("operation", "+=");
+            assignment.put("assignmentValue", 1);
+            actionNode.getData().put("actions", new ArrayList<>(Arrays.asList(assignment)));
+            nodes.add(actionNode);
+
+            edges.add(edge(decision, action, "true"));
+            if (next != null) {
+                edges.add(edge(decision, next, "false"));
+                edges.add(edge(action, next, null));
+            }
+        }
+
+        GraphDto graph = new GraphDto();
+        graph.setNodes(nodes);
+        graph.setEdges(edges);
+        return graph;
+    }
+
+    public static List<RuleVariable> variables(int decisions) {
+        List<RuleVariable> variables = new ArrayList<>();
+        for (int i = 0; i < decisions; i++) {
+            variables.add(variable((long) i + 1, variableCode(i), "INTEGER"));
+        }
+        variables.add(variable((long) decisions + 1, SCORE, "INTEGER"));
+        return variables;
+    }
+
+    public static Map<String, Object> inputs(int decisions, long seed) {
+        Random random = new Random(seed);
+        Map<String, Object> inputs = new HashMap<>();
+        for (int i = 0; i < decisions; i++) {
+            inputs.put(variableCode(i), random.nextInt(100));
+        }
+        inputs.put(SCORE, 0);
+        return inputs;
+    }
+
+    public static String variableCode(int i) {
+        return "v" + i;
+    }
+
+    public static RulePackage rulePackage(Long activeVersionId) {
+        RulePackage pkg = new RulePackage();
+        pkg.setId(1L);
+        pkg.setCode(PACKAGE_CODE);
+        pkg.setName(PACKAGE_CODE);
+        pkg.setActiveVersionId(activeVersionId);
+        return pkg;
+    }
+
+    /**
+     * Converter service with the converters of the synthetic graphs and mocked mappers
+     */
+    public static RuleConverterServiceImpl converter(List<RuleVariable> variables) {
+        RulePackageMapper rulePackageMapper = Mockito.mock(RulePackageMapper.class);
+        Mockito.when(rulePackageMapper.selectByCode(PACKAGE_CODE)).thenReturn(rulePackage(null));
+        RuleVariableMapper ruleVariableMapper = Mockito.mock(RuleVariableMapper.class);
+        Mockito.when(ruleVariableMapper.selectByPackageId(1L)).thenReturn(variables);
+
+        ActionNodeConverter actionNodeConverter = new ActionNodeConverter();
+        StartNodeConverter startNodeConverter = new StartNodeConverter();
+        ReflectionTestUtils.setField(startNodeConverter, "actionNodeConverter", actionNodeConverter);
+        List<NodeConverter> converters = Arrays.asList(startNodeConverter, new DecisionNodeConverter(), actionNodeConverter);
+
+        RuleConverterServiceImpl converter = new RuleConverterServiceImpl();
+        ReflectionTestUtils.setField(converter, "rulePackageMapper", rulePackageMapper);
+        ReflectionTestUtils.setField(converter, "ruleVariableMapper", ruleVariableMapper);
+        ReflectionTestUtils.setField(converter, "nodeConverters", converters);
+        return converter;
+    }
+
+    public static String drl(int decisions) {
+        return converter(variables(decisions)).convertToDrl(PACKAGE_CODE, decisionChain(decisions));
+    }
+
+    private static NodeDto node(String id, String type, String label) {
+        NodeDto node = new NodeDto();
+        node.setId(id);
+        node.setType(type);
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("type", type);
+        data.put("label", label);
+        node.setData(data);
+        return node;
+    }
+
+    private static EdgeDto edge(String source, String target, String sourceHandle) {
+        EdgeDto edge = new EdgeDto();
+        edge.setId(source + "-" + target);
+        edge.setSource(source);
+        edge.setTarget(target);
+        edge.setSourceHandle(sourceHandle);
+        return edge;
+    }
+
+    private static RuleVariable variable(Long id, String code, String type) {
+        RuleVariable variable = new RuleVariable();
+        variable.setId(id);
+        variable.setPackageId(1L);
+        variable.setCode(code);
+        variable.setName(code);
+        variable.setType(type);
+        return variable;
+    }
+}
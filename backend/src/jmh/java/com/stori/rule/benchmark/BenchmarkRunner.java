@@ -0,0 +1,143 @@
+package com.stori.rule.benchmark;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.TypeReference;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import lombok.Data;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the benchmarks and compares them with a stored baseline.
+ * <p>
+ * System properties:
+ * <ul>
+ *     <li>benchmark.include - regex of benchmark class names, default all</li>
+ *     <li>benchmark.baseline - baseline file; when it is missing the results are recorded as the baseline</li>
+ *     <li>benchmark.threshold - allowed relative slowdown before a result is a regression, default 0.10</li>
+ *     <li>benchmark.updateBaseline - record these results into the baseline instead of comparing, the
+ *     way to add new benchmarks to it</li>
+ *     <li>benchmark.result - raw JMH JSON output</li>
+ * </ul>
+ * Exits with 1 when any benchmark regressed or has no baseline entry. Baselines are only comparable on
+ * the machine that recorded them, so a fresh checkout records its own on the first run.
+ */
+public class BenchmarkRunner {
+
+    @Data
+    public static class Score {
+        private String mode;
+        private String unit;
+        private double score;
+        private double error;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String include = System.getProperty("benchmark.include", ".*");
+        Path baselineFile = Paths.get(System.getProperty("benchmark.baseline", "src/jmh/baseline.json"));
+        double threshold = Double.parseDouble(System.getProperty("benchmark.threshold", "0.10"));
+        boolean missingBaseline = !Files.exists(baselineFile);
+        boolean updateBaseline = Boolean.getBoolean("benchmark.updateBaseline") || missingBaseline;
+        if (missingBaseline) {
+            System.out.printf("No baseline at %s, this run records it%n", baselineFile);
+        }
+
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.include(BenchmarkRunner.class.getPackage().getName() + "\\.(" + include + ")\\.");
+        String resultFile = System.getProperty("benchmark.result");
+        if (resultFile != null) {
+            builder.result(resultFile).resultFormat(ResultFormatType.JSON);
+        }
+        Options options = builder.build();
+        Map<String, Score> current = scores(new Runner(options).run());
+
+        if (updateBaseline) {
+            Map<String, Score> baseline = missingBaseline ? new LinkedHashMap<>() : readBaseline(baselineFile);
+            baseline.putAll(current);
+            Files.write(baselineFile, JSON.toJSONString(baseline, SerializerFeature.PrettyFormat).getBytes(StandardCharsets.UTF_8));
+            System.out.printf("Baseline written to %s (%d results)%n", baselineFile, current.size());
+            return;
+        }
+
+        Map<String, Score> baseline = readBaseline(baselineFile);
+        List<String> regressions = new ArrayList<>();
+        List<String> unrecorded = new ArrayList<>();
+        System.out.printf("%n%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score base = baseline.get(entry.getKey());
+            if (base == null || !base.getMode().equals(now.getMode()) || !base.getUnit().equals(now.getUnit())) {
+                System.out.printf("%-90s %14s %14.3f %9s%n", entry.getKey(), "-", now.getScore(), "new");
+                unrecorded.add(entry.getKey());
+                continue;
+            }
+            // Throughput is better when higher, every other mode measures time
+            boolean higherIsBetter = Mode.Throughput.shortLabel().equals(now.getMode());
+            double change = (now.getScore() - base.getScore()) / base.getScore();
+            double slowdown = higherIsBetter ? -change : change;
+            boolean regressed = slowdown > threshold;
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%%s%n", entry.getKey(), base.getScore(), now.getScore(),
+                    change * 100, regressed ? "  REGRESSION" : "");
+            if (regressed) {
+                regressions.add(entry.getKey());
+            }
+        }
+
+        if (!unrecorded.isEmpty()) {
+            System.out.printf("%n%d benchmark(s) have no baseline, record them with -Dbenchmark.updateBaseline=true: %s%n",
+                    unrecorded.size(), unrecorded);
+        }
+        if (!regressions.isEmpty()) {
+            System.out.printf("%n%d benchmark(s) regressed by more than %.0f%%: %s%n", regressions.size(), threshold * 100, regressions);
+        }
+        if (!unrecorded.isEmpty() || !regressions.isEmpty()) {
+            System.exit(1);
+        }
+        System.out.printf("%nNo regressions beyond %.0f%%%n", threshold * 100);
+    }
+
+    private static Map<String, Score> scores(Collection<RunResult> results) {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            StringBuilder key = new StringBuilder(params.getBenchmark());
+            for (String param : params.getParamsKeys()) {
+                key.append(key.indexOf("[") < 0 ? "[" : ",").append(param).append('=').append(params.getParam(param));
+            }
+            if (key.indexOf("[") >= 0) {
+                key.append(']');
+            }
+            Result<?> primary = result.getPrimaryResult();
+            Score score = new Score();
+            score.setMode(params.getMode().shortLabel());
+            score.setUnit(primary.getScoreUnit());
+            score.setScore(primary.getScore());
+            score.setError(primary.getScoreError());
+            scores.put(key.toString(), score);
+        }
+        return scores;
+    }
+
+    private static Map<String, Score> readBaseline(Path file) throws Exception {
+        String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        Map<String, Score> baseline = JSON.parseObject(json, new TypeReference<LinkedHashMap<String, Score>>() {
+        });
+        return baseline != null ? baseline : new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,46 @@
+package com.stori.rule.benchmark;
+
+import com.stori.rule.dto.GraphDto;
+import com.stori.rule.service.impl.RuleConverterServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RuleConverterServiceImpl.convertToDrl on synthetic graphs of increasing size
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConverterBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int decisions;
+
+    private RuleConverterServiceImpl converter;
+    private GraphDto graph;
+
+    @Setup
+    public void setup() {
+        converter = BenchmarkFixtures.converter(BenchmarkFixtures.variables(decisions));
+        graph = BenchmarkFixtures.decisionChain(decisions);
+    }
+
+    @Benchmark
+    public String convertToDrl() {
+        return converter.convertToDrl(BenchmarkFixtures.PACKAGE_CODE, graph);
+    }
+}
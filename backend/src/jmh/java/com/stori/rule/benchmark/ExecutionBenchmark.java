@@ -0,0 +1,176 @@
+package com.stori.rule.benchmark;
+
+import com.alibaba.fastjson.JSON;
+import com.stori.rule.dto.PackageSnapshot;
+import com.stori.rule.entity.Feature;
+import com.stori.rule.entity.RuleDefinition;
+import com.stori.rule.entity.RulePackageVersion;
+import com.stori.rule.entity.RuleVariable;
+import com.stori.rule.executor.FeatureDescriptor;
+import com.stori.rule.executor.FeatureExecutor;
+import com.stori.rule.executor.FeatureExecutorFactory;
+import com.stori.rule.mapper.RulePackageMapper;
+import com.stori.rule.mapper.RulePackageVersionMapper;
+import com.stori.rule.mapper.RuleExecutionRollupMapper;
+import com.stori.rule.service.AsyncRecordService;
+import com.stori.rule.service.SysConfigService;
+import com.stori.rule.service.execution.KieBaseDiskCache;
+import com.stori.rule.service.impl.DroolsServiceImpl;
+import com.stori.rule.service.metrics.ExecutionMetrics;
+import com.stori.rule.service.metrics.ExecutionRollupAggregator;
+import com.stori.rule.service.metrics.NodeProfiler;
+import com.stori.rule.service.record.FieldDictionary;
+import com.stori.rule.service.record.RecordingPolicy;
+import com.stori.rule.service.snapshot.RuntimeSnapshot;
+import com.stori.rule.service.snapshot.RuntimeSnapshotCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Production execution through DroolsServiceImpl with mocked mappers, constant feature executors and
+ * a no-op record service, so only engine, enrichment and instrumentation cost is measured
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class ExecutionBenchmark {
+
+    private static final String FEATURE_TYPE = "BENCH";
+    private static final int FEATURES = 5;
+    private static final Long VERSION_ID = 1L;
+
+    @Param({"10", "100"})
+    private int decisions;
+
+    private DroolsServiceImpl droolsService;
+    private Map<String, Object> inputs;
+
+    private static class ConstantFeatureExecutor implements FeatureExecutor {
+        @Override
+        public FeatureDescriptor compile(Feature feature) {
+            return new FeatureDescriptor(feature, this, Collections.emptyMap(), null);
+        }
+
+        @Override
+        public Object execute(FeatureDescriptor descriptor, Map<String, Object> context) {
+            return 42;
+        }
+
+        @Override
+        public String getType() {
+            return FEATURE_TYPE;
+        }
+    }
+
+    // Mockito mocks keep every invocation, so the hot path gets a plain no-op
+    private static class NoopRecordService implements AsyncRecordService {
+        @Override
+        public void recordFeature(String reqId, Long featureId, String featureName, Object value, long executionTime, RecordingPolicy policy) {
+        }
+
+        @Override
+        public void recordRuleExecution(String reqId, String packageCode, Map<String, Object> input, Map<String, Object> output,
+                                        long executionTime, String status, String errorMsg, RecordingPolicy policy, FieldDictionary dictionary) {
+        }
+    }
+
+    @Setup
+    public void setup() {
+        // Generated consequences print debug lines
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        List<RuleVariable> variables = BenchmarkFixtures.variables(decisions);
+        Map<Long, Feature> featureMap = new HashMap<>();
+        for (int i = 0; i < FEATURES; i++) {
+            Feature feature = new Feature();
+            feature.setId((long) 1000 + i);
+            feature.setName("feature" + i);
+            feature.setCode("feature" + i);
+            feature.setType(FEATURE_TYPE);
+            featureMap.put(feature.getId(), feature);
+
+            RuleVariable variable = new RuleVariable();
+            variable.setId((long) 1000 + i);
+            variable.setPackageId(1L);
+            variable.setCode("f" + i);
+            variable.setName("f" + i);
+            variable.setType("INTEGER");
+            variable.setFeatureId(feature.getId());
+            variables.add(variable);
+        }
+
+        RuleDefinition rule = new RuleDefinition();
+        rule.setDrlContent(BenchmarkFixtures.drl(decisions));
+        PackageSnapshot snapshot = new PackageSnapshot();
+        snapshot.setRuleDefinitions(Collections.singletonList(rule));
+        snapshot.setVariables(variables);
+        snapshot.setFeatureMap(featureMap);
+        RulePackageVersion version = new RulePackageVersion();
+        version.setId(VERSION_ID);
+        version.setSnapshotData(JSON.toJSONString(snapshot));
+        version.setRuntimeData(RuntimeSnapshotCodec.encode(RuntimeSnapshot.of(snapshot)));
+
+        RulePackageMapper rulePackageMapper = Mockito.mock(RulePackageMapper.class);
+        Mockito.when(rulePackageMapper.selectByCode(BenchmarkFixtures.PACKAGE_CODE)).thenReturn(BenchmarkFixtures.rulePackage(VERSION_ID));
+        RulePackageVersionMapper rulePackageVersionMapper = Mockito.mock(RulePackageVersionMapper.class);
+        Mockito.when(rulePackageVersionMapper.selectRuntimeData(VERSION_ID)).thenReturn(version);
+
+        ExecutionMetrics executionMetrics = new ExecutionMetrics();
+        ReflectionTestUtils.setField(executionMetrics, "meterRegistry", new SimpleMeterRegistry());
+        NodeProfiler nodeProfiler = new NodeProfiler();
+        // Stub-only, so the per-execution profiling check does not pile up recorded invocations
+        ReflectionTestUtils.setField(nodeProfiler, "sysConfigService",
+                Mockito.mock(SysConfigService.class, Mockito.withSettings().stubOnly()));
+        ExecutionRollupAggregator rollupAggregator = new ExecutionRollupAggregator();
+        ReflectionTestUtils.setField(rollupAggregator, "ruleExecutionRollupMapper", Mockito.mock(RuleExecutionRollupMapper.class));
+
+        droolsService = new DroolsServiceImpl();
+        ReflectionTestUtils.setField(droolsService, "rulePackageMapper", rulePackageMapper);
+        ReflectionTestUtils.setField(droolsService, "rulePackageVersionMapper", rulePackageVersionMapper);
+        ReflectionTestUtils.setField(droolsService, "featureExecutorFactory",
+                new FeatureExecutorFactory(Collections.singletonList(new ConstantFeatureExecutor())));
+        ReflectionTestUtils.setField(droolsService, "asyncRecordService", new NoopRecordService());
+        ReflectionTestUtils.setField(droolsService, "executionRollupAggregator", rollupAggregator);
+        ReflectionTestUtils.setField(droolsService, "executionMetrics", executionMetrics);
+        ReflectionTestUtils.setField(droolsService, "nodeProfiler", nodeProfiler);
+        // Left disabled, every run compiles from DRL
+        ReflectionTestUtils.setField(droolsService, "kieBaseDiskCache", new KieBaseDiskCache());
+        // Cache budgets keep their field defaults of 0, unlimited
+        ReflectionTestUtils.setField(droolsService, "meterRegistry", new SimpleMeterRegistry());
+        droolsService.init();
+
+        inputs = BenchmarkFixtures.inputs(decisions, 42);
+        // Load metadata and compile outside the measurement
+        droolsService.execute(BenchmarkFixtures.PACKAGE_CODE, new HashMap<>(inputs));
+    }
+
+    @Benchmark
+    public Map<String, Object> execute() {
+        return droolsService.execute(BenchmarkFixtures.PACKAGE_CODE, new HashMap<>(inputs));
+    }
+}
@@ -0,0 +1,71 @@
+package com.stori.rule.benchmark;
+
+import com.alibaba.fastjson.JSON;
+import com.stori.rule.service.record.FieldDictionary;
+import com.stori.rule.service.record.RecordCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payload serialization of execution records, JSON and the binary record format
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordSerializationBenchmark {
+
+    @Param({"10", "100"})
+    private int fields;
+
+    private Map<String, Object> payload;
+    private FieldDictionary dictionary;
+    private String json;
+    private byte[] binary;
+
+    @Setup
+    public void setup() {
+        payload = BenchmarkFixtures.inputs(fields, 42);
+        payload.put("name", "benchmark payload");
+        List<String> codes = new ArrayList<>(payload.keySet());
+        dictionary = new FieldDictionary(codes);
+        json = JSON.toJSONString(payload);
+        binary = RecordCodec.encodeMap(payload, dictionary);
+    }
+
+    @Benchmark
+    public String jsonEncode() {
+        return JSON.toJSONString(payload);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return RecordCodec.encodeMap(payload, dictionary);
+    }
+
+    @Benchmark
+    public Object jsonDecode() {
+        return JSON.parseObject(json);
+    }
+
+    @Benchmark
+    public Map<String, Object> binaryDecode() {
+        return RecordCodec.decodeMap(binary, dictionary);
+    }
+}
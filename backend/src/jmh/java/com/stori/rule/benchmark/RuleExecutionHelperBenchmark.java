@@ -0,0 +1,90 @@
+package com.stori.rule.benchmark;
+
+import com.stori.rule.utils.PathExpression;
+import com.stori.rule.utils.RuleExecutionHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Path extraction and type coercion used by generated consequences
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleExecutionHelperBenchmark {
+
+    private Map<String, Object> context;
+    private PathExpression nested;
+
+    @Setup
+    public void setup() {
+        Map<String, Object> address = new HashMap<>();
+        address.put("city", "Shanghai");
+        Map<String, Object> user = new HashMap<>();
+        user.put("address", address);
+        Map<String, Object> order = new HashMap<>();
+        order.put("amount", 120.5);
+
+        context = new HashMap<>();
+        context.put("age", 30);
+        context.put("user", user);
+        context.put("orders", Arrays.asList(order));
+        nested = PathExpression.of("user.address.city");
+    }
+
+    @Benchmark
+    public Object extractSimple() {
+        return RuleExecutionHelper.extractValue(context, "age");
+    }
+
+    @Benchmark
+    public Object extractNested() {
+        return RuleExecutionHelper.extractValue(context, "user.address.city");
+    }
+
+    @Benchmark
+    public Object extractIndexed() {
+        return RuleExecutionHelper.extractValue(context, "orders[0].amount");
+    }
+
+    @Benchmark
+    public Object extractCompiled() {
+        return nested.get(context);
+    }
+
+    @Benchmark
+    public Object extractLiteral() {
+        return RuleExecutionHelper.extractValue(context, "42.5");
+    }
+
+    @Benchmark
+    public Object convertStringToInteger() {
+        return RuleExecutionHelper.convert("12345", "INTEGER");
+    }
+
+    @Benchmark
+    public Object convertNumberToDouble() {
+        return RuleExecutionHelper.convert(12345, "DOUBLE");
+    }
+
+    @Benchmark
+    public Object convertToString() {
+        return RuleExecutionHelper.convert(12345L, "STRING");
+    }
+}
@@ -0,0 +1,20 @@
+package com.stori.rule.loadtest;
+
+import java.util.Map;
+
+/**
+ * Where load is sent
+ */
+public interface ExecutionTarget extends AutoCloseable {
+
+    /**
+     * Execute the package once, throwing on failure
+     */
+    Map<String, Object> execute(String packageCode, Map<String, Object> inputs) throws Exception;
+
+    String describe();
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,49 @@
+package com.stori.rule.loadtest;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * Shape of the synthetic rule packages and their inputs
+ */
+@Data
+public class GeneratorConfig {
+
+    public enum Distribution {
+        /** Every value equally likely */
+        UNIFORM,
+        /** Low values dominate, so a few branches take most of the traffic */
+        SKEWED
+    }
+
+    /** Branch levels below the start chain; the last level is actions */
+    private int depth = 4;
+    /** Cases of SWITCH nodes */
+    private int branching = 3;
+    /** Branches of DECISION_TABLE nodes, plus a default */
+    private int tableWidth = 4;
+    /** COUNT loops chained after the start node, off by default since their updates re-evaluate every rule */
+    private int loops = 0;
+    private int loopIterations = 5;
+    /** RULE_PACKAGE nodes calling generated sub-packages */
+    private int subPackages = 1;
+    /** Variables bound to stub features */
+    private int features = 3;
+    private Distribution distribution = Distribution.UNIFORM;
+    private long seed = 42;
+
+    public static GeneratorConfig from(Map<String, String> args) {
+        GeneratorConfig config = new GeneratorConfig();
+        config.setDepth(Integer.parseInt(args.getOrDefault("depth", String.valueOf(config.getDepth()))));
+        config.setBranching(Integer.parseInt(args.getOrDefault("branching", String.valueOf(config.getBranching()))));
+        config.setTableWidth(Integer.parseInt(args.getOrDefault("tableWidth", String.valueOf(config.getTableWidth()))));
+        config.setLoops(Integer.parseInt(args.getOrDefault("loops", String.valueOf(config.getLoops()))));
+        config.setLoopIterations(Integer.parseInt(args.getOrDefault("loopIterations", String.valueOf(config.getLoopIterations()))));
+        config.setSubPackages(Integer.parseInt(args.getOrDefault("subPackages", String.valueOf(config.getSubPackages()))));
+        config.setFeatures(Integer.parseInt(args.getOrDefault("features", String.valueOf(config.getFeatures()))));
+        config.setDistribution(Distribution.valueOf(args.getOrDefault("distribution", config.getDistribution().name()).toUpperCase()));
+        config.setSeed(Long.parseLong(args.getOrDefault("seed", String.valueOf(config.getSeed()))));
+        return config;
+    }
+}
@@ -0,0 +1,57 @@
+package com.stori.rule.loadtest;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A running server, called through POST /api/execute/execute.
+ * The generated packages must have been imported and published there, see the export option.
+ */
+public class HttpTarget implements ExecutionTarget {
+
+    private final HttpClient client;
+    private final URI uri;
+    private final String tenantId;
+
+    public HttpTarget(String baseUrl, String tenantId) {
+        this.client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        this.uri = URI.create(baseUrl.replaceAll("/+$", "") + "/api/execute/execute");
+        this.tenantId = tenantId;
+    }
+
+    @Override
+    public Map<String, Object> execute(String packageCode, Map<String, Object> inputs) throws Exception {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("packageCode", packageCode);
+        payload.put("inputs", inputs);
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(JSON.toJSONString(payload)));
+        if (tenantId != null) {
+            request.header("X-Tenant-Id", tenantId);
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new RuntimeException("HTTP " + response.statusCode());
+        }
+        JSONObject result = JSON.parseObject(response.body());
+        if (result.getIntValue("code") != 200) {
+            throw new RuntimeException(result.getString("message"));
+        }
+        return result.getJSONObject("data");
+    }
+
+    @Override
+    public String describe() {
+        return "http " + uri;
+    }
+}
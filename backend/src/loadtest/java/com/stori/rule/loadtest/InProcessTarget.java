@@ -0,0 +1,226 @@
+package com.stori.rule.loadtest;
+
+import com.alibaba.fastjson.JSON;
+import com.stori.rule.dto.PackageSnapshot;
+import com.stori.rule.entity.Feature;
+import com.stori.rule.entity.RuleDefinition;
+import com.stori.rule.entity.RulePackage;
+import com.stori.rule.entity.RulePackageVersion;
+import com.stori.rule.entity.RuleVariable;
+import com.stori.rule.executor.FeatureDescriptor;
+import com.stori.rule.executor.FeatureExecutor;
+import com.stori.rule.executor.FeatureExecutorFactory;
+import com.stori.rule.mapper.RuleExecutionRollupMapper;
+import com.stori.rule.mapper.RulePackageMapper;
+import com.stori.rule.mapper.RulePackageVersionMapper;
+import com.stori.rule.mapper.RuleVariableMapper;
+import com.stori.rule.service.AsyncRecordService;
+import com.stori.rule.service.DroolsService;
+import com.stori.rule.service.SysConfigService;
+import com.stori.rule.service.converter.NodeConverter;
+import com.stori.rule.service.converter.impl.ActionNodeConverter;
+import com.stori.rule.service.converter.impl.DecisionNodeConverter;
+import com.stori.rule.service.converter.impl.DecisionTableNodeConverter;
+import com.stori.rule.service.converter.impl.LoopNodeConverter;
+import com.stori.rule.service.converter.impl.RulePackageNodeConverter;
+import com.stori.rule.service.converter.impl.ScriptNodeConverter;
+import com.stori.rule.service.converter.impl.StartNodeConverter;
+import com.stori.rule.service.converter.impl.SwitchNodeConverter;
+import com.stori.rule.service.execution.KieBaseDiskCache;
+import com.stori.rule.service.impl.DroolsServiceImpl;
+import com.stori.rule.service.impl.RuleConverterServiceImpl;
+import com.stori.rule.service.metrics.ExecutionMetrics;
+import com.stori.rule.service.metrics.ExecutionRollupAggregator;
+import com.stori.rule.service.metrics.NodeProfiler;
+import com.stori.rule.service.record.FieldDictionary;
+import com.stori.rule.service.record.RecordingPolicy;
+import com.stori.rule.service.snapshot.RuntimeSnapshot;
+import com.stori.rule.service.snapshot.RuntimeSnapshotCodec;
+import com.stori.rule.utils.RuleExecutionHelper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * DroolsServiceImpl in this JVM, wired like the application but with the generated packages held in
+ * memory instead of the database, stub feature executors and a record service that only counts.
+ * Everything on the execution path (KieBase, enrichment, metrics, rollups) is the production code.
+ */
+public class InProcessTarget implements ExecutionTarget {
+
+    private final DroolsServiceImpl droolsService = new DroolsServiceImpl();
+    private final GenericApplicationContext context = new GenericApplicationContext();
+    private final LongAdder records = new LongAdder();
+
+    private final Map<String, RulePackage> packagesByCode = new HashMap<>();
+    private final Map<Long, RulePackageVersion> versions = new HashMap<>();
+    private final Map<Long, List<RuleVariable>> variablesByPackage = new HashMap<>();
+
+    private static class StubFeatureExecutor implements FeatureExecutor {
+        private final long latencyNanos;
+
+        private StubFeatureExecutor(long latencyMicros) {
+            this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+        }
+
+        @Override
+        public FeatureDescriptor compile(Feature feature) {
+            return new FeatureDescriptor(feature, this, Collections.emptyMap(), null);
+        }
+
+        @Override
+        public Object execute(FeatureDescriptor descriptor, Map<String, Object> context) {
+            if (latencyNanos > 0) {
+                LockSupport.parkNanos(latencyNanos);
+            }
+            return ThreadLocalRandom.current().nextInt(SyntheticPackageGenerator.INT_RANGE);
+        }
+
+        @Override
+        public String getType() {
+            return SyntheticPackageGenerator.FEATURE_TYPE;
+        }
+    }
+
+    private class CountingRecordService implements AsyncRecordService {
+        @Override
+        public void recordFeature(String reqId, Long featureId, String featureName, Object value, long executionTime, RecordingPolicy policy) {
+            records.increment();
+        }
+
+        @Override
+        public void recordRuleExecution(String reqId, String packageCode, Map<String, Object> input, Map<String, Object> output,
+                                        long executionTime, String status, String errorMsg, RecordingPolicy policy, FieldDictionary dictionary) {
+            records.increment();
+        }
+    }
+
+    public InProcessTarget(SyntheticPackage root, long featureLatencyMicros, boolean parallelFeatures) {
+        RulePackageMapper rulePackageMapper = Mockito.mock(RulePackageMapper.class);
+        Mockito.when(rulePackageMapper.selectByCode(Mockito.anyString())).thenAnswer(i -> packagesByCode.get(i.<String>getArgument(0)));
+        RuleVariableMapper ruleVariableMapper = Mockito.mock(RuleVariableMapper.class);
+        Mockito.when(ruleVariableMapper.selectByPackageId(Mockito.anyLong()))
+                .thenAnswer(i -> variablesByPackage.getOrDefault(i.<Long>getArgument(0), Collections.emptyList()));
+        RulePackageVersionMapper rulePackageVersionMapper = Mockito.mock(RulePackageVersionMapper.class);
+        Mockito.when(rulePackageVersionMapper.selectRuntimeData(Mockito.any())).thenAnswer(i -> versions.get(i.<Long>getArgument(0)));
+        Mockito.when(rulePackageVersionMapper.selectSnapshotData(Mockito.any())).thenAnswer(i -> {
+            RulePackageVersion version = versions.get(i.<Long>getArgument(0));
+            return version != null ? version.getSnapshotData() : null;
+        });
+
+        RuleConverterServiceImpl converter = converter(rulePackageMapper, ruleVariableMapper);
+        for (SyntheticPackage pkg : root.flatten()) {
+            variablesByPackage.put(pkg.getId(), pkg.getVariables());
+            packagesByCode.put(pkg.getCode(), rulePackage(pkg));
+        }
+        // Publish every package as a version snapshot, like RulePackageVersionServiceImpl does
+        for (SyntheticPackage pkg : root.flatten()) {
+            RuleDefinition rule = new RuleDefinition();
+            rule.setPackageId(pkg.getId());
+            rule.setName(pkg.getCode());
+            rule.setDrlContent(converter.convertToDrl(pkg.getCode(), pkg.getGraph()));
+            PackageSnapshot snapshot = new PackageSnapshot();
+            snapshot.setRuleDefinitions(Collections.singletonList(rule));
+            snapshot.setVariables(pkg.getVariables());
+            snapshot.setFeatureMap(pkg.getFeatureMap());
+            snapshot.setTimestamp(System.currentTimeMillis());
+
+            RulePackageVersion version = new RulePackageVersion();
+            version.setId(pkg.getId());
+            version.setPackageId(pkg.getId());
+            version.setVersion("loadtest");
+            version.setSnapshotData(JSON.toJSONString(snapshot));
+            version.setRuntimeData(RuntimeSnapshotCodec.encode(RuntimeSnapshot.of(snapshot)));
+            versions.put(version.getId(), version);
+        }
+
+        ExecutionMetrics executionMetrics = new ExecutionMetrics();
+        ReflectionTestUtils.setField(executionMetrics, "meterRegistry", new SimpleMeterRegistry());
+        NodeProfiler nodeProfiler = new NodeProfiler();
+        // Stub-only, so the per-execution profiling check does not pile up recorded invocations
+        ReflectionTestUtils.setField(nodeProfiler, "sysConfigService",
+                Mockito.mock(SysConfigService.class, Mockito.withSettings().stubOnly()));
+        ExecutionRollupAggregator rollupAggregator = new ExecutionRollupAggregator();
+        ReflectionTestUtils.setField(rollupAggregator, "ruleExecutionRollupMapper", Mockito.mock(RuleExecutionRollupMapper.class));
+
+        ReflectionTestUtils.setField(droolsService, "rulePackageMapper", rulePackageMapper);
+        ReflectionTestUtils.setField(droolsService, "ruleVariableMapper", ruleVariableMapper);
+        ReflectionTestUtils.setField(droolsService, "rulePackageVersionMapper", rulePackageVersionMapper);
+        ReflectionTestUtils.setField(droolsService, "featureExecutorFactory",
+                new FeatureExecutorFactory(Collections.singletonList(new StubFeatureExecutor(featureLatencyMicros))));
+        ReflectionTestUtils.setField(droolsService, "asyncRecordService", new CountingRecordService());
+        ReflectionTestUtils.setField(droolsService, "executionRollupAggregator", rollupAggregator);
+        ReflectionTestUtils.setField(droolsService, "executionMetrics", executionMetrics);
+        ReflectionTestUtils.setField(droolsService, "nodeProfiler", nodeProfiler);
+        // Left disabled, every run compiles from DRL
+        ReflectionTestUtils.setField(droolsService, "kieBaseDiskCache", new KieBaseDiskCache());
+        ReflectionTestUtils.setField(droolsService, "parallelFeatures", parallelFeatures);
+        // Cache budgets keep their field defaults of 0, unlimited
+        ReflectionTestUtils.setField(droolsService, "meterRegistry", new SimpleMeterRegistry());
+        droolsService.init();
+
+        // RULE_PACKAGE consequences reach the service through RuleExecutionHelper
+        context.registerBean(DroolsService.class, () -> droolsService);
+        context.refresh();
+        new RuleExecutionHelper().setApplicationContext(context);
+    }
+
+    @Override
+    public Map<String, Object> execute(String packageCode, Map<String, Object> inputs) {
+        return droolsService.execute(packageCode, inputs);
+    }
+
+    @Override
+    public String describe() {
+        return "in-process, " + packagesByCode.size() + " package(s)";
+    }
+
+    public long getRecords() {
+        return records.sum();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    private static RulePackage rulePackage(SyntheticPackage pkg) {
+        RulePackage rulePackage = new RulePackage();
+        rulePackage.setId(pkg.getId());
+        rulePackage.setCode(pkg.getCode());
+        rulePackage.setName(pkg.getCode());
+        rulePackage.setStatus("PUBLISHED");
+        rulePackage.setActiveVersionId(pkg.getId());
+        return rulePackage;
+    }
+
+    private static RuleConverterServiceImpl converter(RulePackageMapper rulePackageMapper, RuleVariableMapper ruleVariableMapper) {
+        ActionNodeConverter actionNodeConverter = new ActionNodeConverter();
+        StartNodeConverter startNodeConverter = new StartNodeConverter();
+        ReflectionTestUtils.setField(startNodeConverter, "actionNodeConverter", actionNodeConverter);
+        RulePackageNodeConverter rulePackageNodeConverter = new RulePackageNodeConverter();
+        ReflectionTestUtils.setField(rulePackageNodeConverter, "rulePackageMapper", rulePackageMapper);
+        ReflectionTestUtils.setField(rulePackageNodeConverter, "ruleVariableMapper", ruleVariableMapper);
+        List<NodeConverter> converters = new ArrayList<>(Arrays.asList(startNodeConverter, actionNodeConverter,
+                new DecisionNodeConverter(), new SwitchNodeConverter(), new DecisionTableNodeConverter(),
+                new LoopNodeConverter(), new ScriptNodeConverter(), rulePackageNodeConverter));
+
+        RuleConverterServiceImpl converter = new RuleConverterServiceImpl();
+        ReflectionTestUtils.setField(converter, "rulePackageMapper", rulePackageMapper);
+        ReflectionTestUtils.setField(converter, "ruleVariableMapper", ruleVariableMapper);
+        ReflectionTestUtils.setField(converter, "nodeConverters", converters);
+        return converter;
+    }
+}
@@ -0,0 +1,127 @@
+package com.stori.rule.loadtest;
+
+import com.stori.rule.service.metrics.LatencyHistogram;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: requests are issued on a fixed schedule at the target rate whatever the latency,
+ * and each latency is measured from the scheduled start, so a stalled target shows up in the
+ * percentiles instead of silently lowering the offered load.
+ */
+public class LoadGenerator {
+
+    private static final int INPUT_POOL = 4096;
+
+    private final ExecutionTarget target;
+    private final String packageCode;
+    private final List<Map<String, Object>> inputPool = new ArrayList<>(INPUT_POOL);
+    private final int threads;
+    private final boolean virtualThreads;
+
+    @Data
+    public static class Report {
+        private long scheduled;
+        private long completed;
+        private long errors;
+        private long elapsedNanos;
+        private long maxMicros;
+        private LatencyHistogram latency;
+        private Map<String, Long> errorSamples;
+
+        public double throughput() {
+            return elapsedNanos > 0 ? completed * 1e9 / elapsedNanos : 0;
+        }
+    }
+
+    /**
+     * @param threads        worker pool size, ignored with virtual threads
+     * @param virtualThreads a virtual thread per request, so concurrency is bounded by the target alone
+     */
+    public LoadGenerator(ExecutionTarget target, SyntheticPackageGenerator generator, String packageCode, long seed,
+                         int threads, boolean virtualThreads) {
+        this.target = target;
+        this.packageCode = packageCode;
+        this.threads = threads;
+        this.virtualThreads = virtualThreads;
+        // Inputs are drawn up front so generating them is not part of the measured request
+        Random random = new Random(seed);
+        for (int i = 0; i < INPUT_POOL; i++) {
+            inputPool.add(generator.inputs(packageCode, random));
+        }
+    }
+
+    public Report run(int qps, long durationSeconds) throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        LongAdder completed = new LongAdder();
+        LongAdder errors = new LongAdder();
+        LongAccumulator max = new LongAccumulator(Math::max, 0);
+        Map<String, Long> errorSamples = new HashMap<>();
+
+        ExecutorService workers = virtualThreads ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(threads, r -> {
+                    Thread thread = new Thread(r, "loadtest-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        long interval = TimeUnit.SECONDS.toNanos(1) / Math.max(1, qps);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long scheduled = 0;
+        try {
+            for (long next = start; next < end; next += interval) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                long intended = next;
+                // Execution mutates its inputs, so every request gets its own copy
+                Map<String, Object> inputs = new HashMap<>(inputPool.get(ThreadLocalRandom.current().nextInt(INPUT_POOL)));
+                scheduled++;
+                workers.execute(() -> {
+                    try {
+                        target.execute(packageCode, inputs);
+                        completed.increment();
+                    } catch (Exception e) {
+                        errors.increment();
+                        String key = e.getClass().getSimpleName() + ": " + e.getMessage();
+                        synchronized (errorSamples) {
+                            errorSamples.merge(key, 1L, Long::sum);
+                        }
+                    } finally {
+                        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+                        histogram.record(micros);
+                        max.accumulate(micros);
+                    }
+                });
+            }
+        } finally {
+            workers.shutdown();
+            if (!workers.awaitTermination(60, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        }
+
+        Report report = new Report();
+        report.setScheduled(scheduled);
+        report.setCompleted(completed.sum());
+        report.setErrors(errors.sum());
+        report.setElapsedNanos(System.nanoTime() - start);
+        report.setMaxMicros(max.get());
+        report.setLatency(histogram);
+        report.setErrorSamples(errorSamples);
+        return report;
+    }
+}
@@ -0,0 +1,158 @@
+package com.stori.rule.loadtest;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import com.stori.rule.service.metrics.LatencyHistogram;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates a synthetic rule package and drives it at a fixed rate, then reports throughput,
+ * latency percentiles and GC activity.
+ * <p>
+ * Arguments are --key=value:
+ * <ul>
+ *     <li>target - inprocess (default) or http</li>
+ *     <li>url, tenant - server and X-Tenant-Id of the http target</li>
+ *     <li>package - code of the generated root package, default loadtest</li>
+ *     <li>qps, duration, warmup, threads - offered rate, measured and warm-up seconds, worker threads</li>
+ *     <li>virtual - a virtual thread per request instead of the worker pool, to compare at high concurrency</li>
+ *     <li>featureLatencyMicros, parallelFeatures - latency of the in-process stub features, run them concurrently</li>
+ *     <li>export - directory the generated packages are written to as JSON, to import them into a server</li>
+ *     <li>depth, branching, tableWidth, loops, loopIterations, subPackages, features, distribution, seed - see GeneratorConfig</li>
+ * </ul>
+ * GC figures are those of this JVM, which only covers the engine for the in-process target.
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        GeneratorConfig config = GeneratorConfig.from(options);
+        String packageCode = options.getOrDefault("package", "loadtest");
+        int qps = Integer.parseInt(options.getOrDefault("qps", "500"));
+        long duration = Long.parseLong(options.getOrDefault("duration", "60"));
+        long warmup = Long.parseLong(options.getOrDefault("warmup", "15"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "32"));
+        boolean virtual = Boolean.parseBoolean(options.getOrDefault("virtual", "false"));
+
+        SyntheticPackageGenerator generator = new SyntheticPackageGenerator(config);
+        SyntheticPackage root = generator.generate(packageCode);
+        List<SyntheticPackage> packages = root.flatten();
+        int nodes = packages.stream().mapToInt(p -> p.getGraph().getNodes().size()).sum();
+        System.out.printf("Generated %d package(s), %d node(s): %s%n", packages.size(), nodes, config);
+
+        String export = options.get("export");
+        if (export != null) {
+            export(packages, Paths.get(export));
+        }
+
+        PrintStream stdout = System.out;
+        try (ExecutionTarget target = target(options, root)) {
+            // Generated consequences print their path, which would dominate the measurement
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            LoadGenerator load = new LoadGenerator(target, generator, packageCode, config.getSeed(), threads, virtual);
+
+            stdout.printf("Target %s, %d qps, %s%n", target.describe(), qps, virtual ? "virtual threads" : threads + " threads");
+            if (warmup > 0) {
+                stdout.printf("Warming up for %ds%n", warmup);
+                load.run(qps, warmup);
+            }
+
+            Map<String, long[]> gcBefore = gcStats();
+            stdout.printf("Measuring for %ds%n", duration);
+            LoadGenerator.Report report = load.run(qps, duration);
+            Map<String, long[]> gcAfter = gcStats();
+
+            System.setOut(stdout);
+            print(report, gcBefore, gcAfter);
+            if (target instanceof InProcessTarget) {
+                System.out.printf("Records enqueued: %d%n", ((InProcessTarget) target).getRecords());
+            }
+        } finally {
+            System.setOut(stdout);
+        }
+    }
+
+    private static ExecutionTarget target(Map<String, String> options, SyntheticPackage root) {
+        String target = options.getOrDefault("target", "inprocess");
+        if ("http".equalsIgnoreCase(target)) {
+            return new HttpTarget(options.getOrDefault("url", "http://localhost:8080"), options.get("tenant"));
+        }
+        if ("inprocess".equalsIgnoreCase(target)) {
+            return new InProcessTarget(root, Long.parseLong(options.getOrDefault("featureLatencyMicros", "200")),
+                    Boolean.parseBoolean(options.getOrDefault("parallelFeatures", "false")));
+        }
+        throw new RuntimeException("Unknown target: " + target);
+    }
+
+    private static void print(LoadGenerator.Report report, Map<String, long[]> gcBefore, Map<String, long[]> gcAfter) {
+        LatencyHistogram latency = report.getLatency();
+        System.out.println();
+        System.out.printf("Requests   scheduled %d, completed %d, errors %d%n", report.getScheduled(), report.getCompleted(), report.getErrors());
+        System.out.printf("Throughput %.1f req/s%n", report.throughput());
+        System.out.printf("Latency    p50 %s  p90 %s  p99 %s  p99.9 %s  max %s%n",
+                millis(latency.valueAt(0.50)), millis(latency.valueAt(0.90)), millis(latency.valueAt(0.99)),
+                millis(latency.valueAt(0.999)), millis(report.getMaxMicros()));
+        for (Map.Entry<String, long[]> entry : gcAfter.entrySet()) {
+            long[] before = gcBefore.getOrDefault(entry.getKey(), new long[2]);
+            System.out.printf("GC         %s: %d collection(s), %d ms%n", entry.getKey(),
+                    entry.getValue()[0] - before[0], entry.getValue()[1] - before[1]);
+        }
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        System.out.printf("Heap       used %d MB of %d MB committed%n", heap.getUsed() >> 20, heap.getCommitted() >> 20);
+        if (!report.getErrorSamples().isEmpty()) {
+            System.out.println("Errors:");
+            report.getErrorSamples().forEach((message, count) -> System.out.printf("  %6d  %s%n", count, message));
+        }
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.2fms", micros / 1000.0);
+    }
+
+    private static Map<String, long[]> gcStats() {
+        Map<String, long[]> stats = new LinkedHashMap<>();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            stats.put(gc.getName(), new long[]{gc.getCollectionCount(), gc.getCollectionTime()});
+        }
+        return stats;
+    }
+
+    private static void export(List<SyntheticPackage> packages, Path dir) throws Exception {
+        Files.createDirectories(dir);
+        for (SyntheticPackage pkg : packages) {
+            Map<String, Object> content = new LinkedHashMap<>();
+            content.put("code", pkg.getCode());
+            content.put("graph", pkg.getGraph());
+            content.put("variables", pkg.getVariables());
+            content.put("features", pkg.getFeatureMap().values());
+            Files.write(dir.resolve(pkg.getCode() + ".json"),
+                    JSON.toJSONString(content, SerializerFeature.PrettyFormat).getBytes(StandardCharsets.UTF_8));
+        }
+        System.out.printf("Exported %d package(s) to %s%n", packages.size(), dir);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new RuntimeException("Expected --key=value, got " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+}
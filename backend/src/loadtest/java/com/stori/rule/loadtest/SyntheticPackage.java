@@ -0,0 +1,34 @@
+package com.stori.rule.loadtest;
+
+import com.stori.rule.dto.GraphDto;
+import com.stori.rule.entity.Feature;
+import com.stori.rule.entity.RuleVariable;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A generated package: its graph, variables, bound features and the sub-packages it calls
+ */
+@Data
+public class SyntheticPackage {
+    private Long id;
+    private String code;
+    private GraphDto graph;
+    private List<RuleVariable> variables = new ArrayList<>();
+    private Map<Long, Feature> featureMap = new HashMap<>();
+    private List<SyntheticPackage> subPackages = new ArrayList<>();
+
+    /** This package and all packages it calls */
+    public List<SyntheticPackage> flatten() {
+        List<SyntheticPackage> all = new ArrayList<>();
+        all.add(this);
+        for (SyntheticPackage sub : subPackages) {
+            all.addAll(sub.flatten());
+        }
+        return all;
+    }
+}
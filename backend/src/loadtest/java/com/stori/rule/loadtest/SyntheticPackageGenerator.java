@@ -0,0 +1,282 @@
+package com.stori.rule.loadtest;
+
+import com.stori.rule.dto.EdgeDto;
+import com.stori.rule.dto.GraphDto;
+import com.stori.rule.dto.NodeDto;
+import com.stori.rule.entity.Feature;
+import com.stori.rule.entity.RuleVariable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates rule packages in the shape the editor produces.
+ * <p>
+ * START -> LOOP* -> RULE_PACKAGE* -> branch tree. Tree levels rotate through DECISION, SWITCH and
+ * DECISION_TABLE nodes, each branching on its own variable, and end in ACTION nodes adding to "score".
+ * Generated inputs select exactly one branch per level, so an execution walks one path of the tree.
+ */
+public class SyntheticPackageGenerator {
+
+    public static final String FEATURE_TYPE = "LOADTEST";
+    public static final String SCORE = "score";
+    public static final int INT_RANGE = 100;
+    private static final int DECISION_THRESHOLD = INT_RANGE / 2;
+
+    private final GeneratorConfig config;
+    private final AtomicLong ids = new AtomicLong(1);
+
+    /** Values each generated variable is drawn from, by package code and variable code */
+    private final Map<String, Map<String, List<Object>>> domains = new HashMap<>();
+
+    public SyntheticPackageGenerator(GeneratorConfig config) {
+        this.config = config;
+    }
+
+    public SyntheticPackage generate(String code) {
+        return generate(code, config.getDepth(), config.getSubPackages());
+    }
+
+    public Map<String, List<Object>> domainOf(String packageCode) {
+        return domains.get(packageCode);
+    }
+
+    private SyntheticPackage generate(String code, int depth, int subPackages) {
+        Builder builder = new Builder(code);
+        SyntheticPackage pkg = builder.pkg;
+        builder.variable(SCORE, "INTEGER", Arrays.asList((Object) 0));
+
+        for (int i = 0; i < config.getFeatures(); i++) {
+            Feature feature = new Feature();
+            feature.setId(ids.getAndIncrement());
+            feature.setCode(code + "_feature" + i);
+            feature.setName(feature.getCode());
+            feature.setType(FEATURE_TYPE);
+            feature.setReturnType("INTEGER");
+            pkg.getFeatureMap().put(feature.getId(), feature);
+            builder.variable("f" + i, "INTEGER", null).setFeatureId(feature.getId());
+        }
+
+        String tail = builder.node("start", "START", "Start").getId();
+
+        for (int i = 0; i < config.getLoops(); i++) {
+            NodeDto loop = builder.node("loop" + i, "LOOP", "Loop " + i);
+            loop.getData().put("loopType", "COUNT");
+            loop.getData().put("maxIterations", config.getLoopIterations());
+            loop.getData().put("loopVariable", "loopIndex" + i);
+            builder.variable("loopIndex" + i, "INTEGER", null);
+            NodeDto body = builder.action("loopBody" + i, "loopCount" + i, 1);
+            builder.variable("loopCount" + i, "INTEGER", Arrays.asList((Object) 0));
+            builder.edge(tail, loop.getId(), builder.pendingHandle);
+            builder.edge(loop.getId(), body.getId(), "loopBody");
+            tail = loop.getId();
+            builder.pendingHandle = "afterLoop";
+        }
+
+        for (int i = 0; i < subPackages; i++) {
+            SyntheticPackage sub = generate(code + "_sub" + i, Math.max(1, depth - 1), 0);
+            pkg.getSubPackages().add(sub);
+
+            NodeDto call = builder.node("call" + i, "RULE_PACKAGE", "Call " + sub.getCode());
+            call.getData().put("packageCode", sub.getCode());
+            call.getData().put("packageId", sub.getId());
+            List<Map<String, Object>> inputMapping = new ArrayList<>();
+            for (RuleVariable var : sub.getVariables()) {
+                if (var.getFeatureId() != null || SCORE.equals(var.getCode())) continue;
+                // Sub-package inputs are generated under prefixed names and mapped on the call
+                String source = sub.getCode() + "_" + var.getCode();
+                builder.variable(source, var.getType(), domains.get(sub.getCode()).get(var.getCode()));
+                inputMapping.add(mapping(source, var.getCode(), var.getType()));
+            }
+            call.getData().put("inputMapping", inputMapping);
+            String subScore = sub.getCode() + "_" + SCORE;
+            builder.variable(subScore, "INTEGER", null);
+            call.getData().put("outputMapping", new ArrayList<>(Arrays.asList(mapping(SCORE, subScore, "INTEGER"))));
+
+            builder.edge(tail, call.getId(), builder.pendingHandle);
+            builder.pendingHandle = null;
+            tail = call.getId();
+        }
+
+        String root = builder.branch(0, depth);
+        builder.edge(tail, root, builder.pendingHandle);
+
+        GraphDto graph = new GraphDto();
+        graph.setNodes(builder.nodes);
+        graph.setEdges(builder.edges);
+        pkg.setGraph(graph);
+        return pkg;
+    }
+
+    private static Map<String, Object> mapping(String source, String target, String targetType) {
+        Map<String, Object> mapping = new LinkedHashMap<>();
+        mapping.put("source", source);
+        mapping.put("target", target);
+        mapping.put("targetType", targetType);
+        return mapping;
+    }
+
+    private class Builder {
+        private final SyntheticPackage pkg = new SyntheticPackage();
+        private final List<NodeDto> nodes = new ArrayList<>();
+        private final List<EdgeDto> edges = new ArrayList<>();
+        private final Map<String, List<Object>> domain = new LinkedHashMap<>();
+        private String pendingHandle;
+        private int counter;
+
+        private Builder(String code) {
+            pkg.setId(ids.getAndIncrement());
+            pkg.setCode(code);
+            domains.put(code, domain);
+        }
+
+        /**
+         * Subtree of the given level, returns its root node id
+         */
+        private String branch(int level, int depth) {
+            int index = counter++;
+            if (level >= depth) {
+                return action("leaf" + index, SCORE, index % 10 + 1).getId();
+            }
+            switch (level % 3) {
+                case 0: {
+                    String var = "d" + index;
+                    variable(var, "INTEGER", range(INT_RANGE));
+                    NodeDto node = node("decision" + index, "DECISION", "Decision " + index);
+                    Map<String, Object> condition = new LinkedHashMap<>();
+                    condition.put("parameter", var);
+                    condition.put("operator", ">");
+                    condition.put("value", DECISION_THRESHOLD);
+                    node.getData().put("conditions", new ArrayList<>(Arrays.asList(condition)));
+                    node.getData().put("conditionLogic", "AND");
+                    edge(node.getId(), branch(level + 1, depth), "true");
+                    edge(node.getId(), branch(level + 1, depth), "false");
+                    return node.getId();
+                }
+                case 1: {
+                    String var = "s" + index;
+                    List<Object> values = new ArrayList<>();
+                    NodeDto node = node("switch" + index, "SWITCH", "Switch " + index);
+                    node.getData().put("parameter", var);
+                    List<Map<String, Object>> cases = new ArrayList<>();
+                    for (int i = 0; i < config.getBranching(); i++) {
+                        Map<String, Object> c = new LinkedHashMap<>();
+                        c.put("id", "case" + i);
+                        c.put("value", "C" + i);
+                        cases.add(c);
+                        values.add("C" + i);
+                        edge(node.getId(), branch(level + 1, depth), "case" + i);
+                    }
+                    node.getData().put("cases", cases);
+                    values.add("OTHER");
+                    edge(node.getId(), branch(level + 1, depth), "default");
+                    variable(var, "STRING", values);
+                    return node.getId();
+                }
+                default: {
+                    String var = "t" + index;
+                    NodeDto node = node("table" + index, "DECISION_TABLE", "Table " + index);
+                    List<Map<String, Object>> branches = new ArrayList<>();
+                    for (int i = 0; i < config.getTableWidth(); i++) {
+                        Map<String, Object> b = new LinkedHashMap<>();
+                        b.put("id", "row" + i);
+                        b.put("type", "CONDITION");
+                        b.put("parameter", var);
+                        b.put("operator", "==");
+                        b.put("value", i);
+                        branches.add(b);
+                        edge(node.getId(), branch(level + 1, depth), "row" + i);
+                    }
+                    node.getData().put("branches", branches);
+                    edge(node.getId(), branch(level + 1, depth), "default");
+                    // One value past the rows takes the default branch
+                    variable(var, "INTEGER", range(config.getTableWidth() + 1));
+                    return node.getId();
+                }
+            }
+        }
+
+        private NodeDto action(String id, String target, int increment) {
+            NodeDto node = node(id, "ACTION", "Action " + id);
+            Map<String, Object> assignment = new LinkedHashMap<>();
+            assignment.put("targetParameter", target);
+            assignment.put("operation", "+=");
+            assignment.put("assignmentValue", increment);
+            node.getData().put("actions", new ArrayList<>(Arrays.asList(assignment)));
+            return node;
+        }
+
+        private NodeDto node(String id, String type, String label) {
+            NodeDto node = new NodeDto();
+            node.setId(id);
+            node.setType(type);
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("type", type);
+            data.put("label", label);
+            node.setData(data);
+            nodes.add(node);
+            return node;
+        }
+
+        private void edge(String source, String target, String sourceHandle) {
+            EdgeDto edge = new EdgeDto();
+            edge.setId(source + "-" + target);
+            edge.setSource(source);
+            edge.setTarget(target);
+            edge.setSourceHandle(sourceHandle);
+            edges.add(edge);
+        }
+
+        /**
+         * @param values domain inputs are drawn from, null for variables the execution fills in
+         */
+        private RuleVariable variable(String code, String type, List<Object> values) {
+            RuleVariable variable = new RuleVariable();
+            variable.setId(ids.getAndIncrement());
+            variable.setPackageId(pkg.getId());
+            variable.setCode(code);
+            variable.setName(code);
+            variable.setType(type);
+            pkg.getVariables().add(variable);
+            if (values != null) {
+                domain.put(code, values);
+            }
+            return variable;
+        }
+
+        private List<Object> range(int size) {
+            List<Object> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(i);
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Inputs of one execution drawn from the package's variable domains
+     */
+    public Map<String, Object> inputs(String packageCode, Random random) {
+        Map<String, Object> inputs = new HashMap<>();
+        for (Map.Entry<String, List<Object>> entry : domains.get(packageCode).entrySet()) {
+            List<Object> values = entry.getValue();
+            inputs.put(entry.getKey(), values.get(pick(values.size(), random)));
+        }
+        return inputs;
+    }
+
+    private int pick(int size, Random random) {
+        if (size == 1) return 0;
+        double u = random.nextDouble();
+        if (config.getDistribution() == GeneratorConfig.Distribution.SKEWED) {
+            u = u * u * u;
+        }
+        return Math.min(size - 1, (int) (u * size));
+    }
+}
@@ -0,0 +1,79 @@
+package com.stori.rule.common;
+
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Tenant and logging context (request id among it) of the capturing thread, installed around tasks
+ * that run on other threads and removed again afterwards.
+ * <p>
+ * Capture once per request and wrap every task with the same snapshot; wrapping itself copies nothing.
+ */
+public final class ContextSnapshot {
+
+    /** MDC key of the execution request id */
+    public static final String REQ_ID = "reqId";
+
+    private final String tenantId;
+    private final Map<String, String> mdc;
+
+    private ContextSnapshot(String tenantId, Map<String, String> mdc) {
+        this.tenantId = tenantId;
+        this.mdc = mdc;
+    }
+
+    public static ContextSnapshot capture() {
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        return new ContextSnapshot(TenantContext.getTenantId(), mdc != null && !mdc.isEmpty() ? mdc : null);
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public Runnable wrap(Runnable task) {
+        return () -> {
+            String previousTenant = TenantContext.peek();
+            Map<String, String> previousMdc = install();
+            try {
+                task.run();
+            } finally {
+                uninstall(previousTenant, previousMdc);
+            }
+        };
+    }
+
+    public <T> Callable<T> wrap(Callable<T> task) {
+        return () -> {
+            String previousTenant = TenantContext.peek();
+            Map<String, String> previousMdc = install();
+            try {
+                return task.call();
+            } finally {
+                uninstall(previousTenant, previousMdc);
+            }
+        };
+    }
+
+    private Map<String, String> install() {
+        TenantContext.setTenantId(tenantId);
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        if (mdc != null) {
+            MDC.setContextMap(mdc);
+        } else if (previous != null) {
+            MDC.clear();
+        }
+        return previous;
+    }
+
+    private static void uninstall(String previousTenant, Map<String, String> previousMdc) {
+        TenantContext.restore(previousTenant);
+        if (previousMdc != null) {
+            MDC.setContextMap(previousMdc);
+        } else {
+            MDC.clear();
+        }
+    }
+}
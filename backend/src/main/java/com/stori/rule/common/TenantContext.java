@@ -21,4 +21,34 @@ public class TenantContext {
     public static void clear() {
         TENANT_ID.remove();
     }
+
+    /**
+     * Runs with the tenant set and restores the caller's tenant afterwards, so pooled and
+     * virtual threads never keep a tenant past the task; tasks handed to other threads
+     * carry the tenant with {@link ContextSnapshot}
+     */
+    public static void runWithTenant(String tenantId, Runnable action) {
+        String previous = TENANT_ID.get();
+        TENANT_ID.set(tenantId);
+        try {
+            action.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Tenant set on this thread, null when none
+     */
+    static String peek() {
+        return TENANT_ID.get();
+    }
+
+    static void restore(String previous) {
+        if (previous != null) {
+            TENANT_ID.set(previous);
+        } else {
+            TENANT_ID.remove();
+        }
+    }
 }
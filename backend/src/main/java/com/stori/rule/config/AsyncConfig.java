@@ -0,0 +1,19 @@
+package com.stori.rule.config;
+
+import com.stori.rule.common.ContextSnapshot;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Applied by Spring Boot to the application task executor, so @Async methods run with the
+     * caller's tenant and request id instead of whatever the worker thread holds
+     */
+    @Bean
+    public TaskDecorator contextSnapshotTaskDecorator() {
+        return task -> ContextSnapshot.capture().wrap(task);
+    }
+}
@@ -0,0 +1,73 @@
+package com.stori.rule.config;
+
+import com.baomidou.mybatisplus.extension.plugins.handler.TenantLineHandler;
+import com.baomidou.mybatisplus.extension.plugins.inner.TenantLineInnerInterceptor;
+import com.stori.rule.common.TenantContext;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TenantLineInnerInterceptor that remembers the rewritten SQL by tenant and original SQL, so a
+ * statement is parsed with JSqlParser once per tenant instead of on every execution.
+ * <p>
+ * Only the SQL text is cached, parameters stay placeholders, so dynamic statements cache one entry per
+ * distinct text. Long statements (IN lists, multi-row inserts) are rewritten every time rather than
+ * filling the cache, which is simply cleared when full.
+ */
+public class CachingTenantLineInnerInterceptor extends TenantLineInnerInterceptor {
+
+    private final int maxEntries;
+    private final int maxSqlLength;
+    private final Map<String, String> rewritten = new ConcurrentHashMap<>();
+
+    public CachingTenantLineInnerInterceptor(TenantLineHandler tenantLineHandler, int maxEntries, int maxSqlLength) {
+        super(tenantLineHandler);
+        this.maxEntries = maxEntries;
+        this.maxSqlLength = maxSqlLength;
+    }
+
+    @Override
+    public String parserSingle(String sql, Object obj) {
+        if (obj != null || !cacheable(sql)) {
+            return super.parserSingle(sql, obj);
+        }
+        String key = key('S', sql);
+        String result = rewritten.get(key);
+        if (result == null) {
+            result = super.parserSingle(sql, null);
+            put(key, result);
+        }
+        return result;
+    }
+
+    @Override
+    public String parserMulti(String sql, Object obj) {
+        if (obj != null || !cacheable(sql)) {
+            return super.parserMulti(sql, obj);
+        }
+        String key = key('M', sql);
+        String result = rewritten.get(key);
+        if (result == null) {
+            result = super.parserMulti(sql, null);
+            put(key, result);
+        }
+        return result;
+    }
+
+    private boolean cacheable(String sql) {
+        return maxEntries > 0 && sql.length() <= maxSqlLength;
+    }
+
+    private static String key(char kind, String sql) {
+        // The tenant is part of the rewritten SQL as a literal
+        return TenantContext.getTenantId() + kind + sql;
+    }
+
+    private void put(String key, String sql) {
+        if (rewritten.size() >= maxEntries) {
+            rewritten.clear();
+        }
+        rewritten.put(key, sql);
+    }
+}
@@ -2,10 +2,10 @@ package com.stori.rule.config;
 
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.handler.TenantLineHandler;
-import com.baomidou.mybatisplus.extension.plugins.inner.TenantLineInnerInterceptor;
 import com.stori.rule.common.TenantContext;
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.StringValue;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -17,13 +17,16 @@ public class TenantConfig {
 
     private static final List<String> IGNORE_TABLES = Arrays.asList(
             "sys_user",
-            "sys_permission"
+            "sys_permission",
+            "record_schema"
     );
 
     @Bean
-    public MybatisPlusInterceptor mybatisPlusInterceptor() {
+    public MybatisPlusInterceptor mybatisPlusInterceptor(
+            @Value("${srule.tenant.sql-cache.max-entries:5000}") int sqlCacheMaxEntries,
+            @Value("${srule.tenant.sql-cache.max-sql-length:4096}") int sqlCacheMaxSqlLength) {
         MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
-        interceptor.addInnerInterceptor(new TenantLineInnerInterceptor(new TenantLineHandler() {
+        interceptor.addInnerInterceptor(new CachingTenantLineInnerInterceptor(new TenantLineHandler() {
             @Override
             public Expression getTenantId() {
                 String tenantId = TenantContext.getTenantId();
@@ -39,7 +42,7 @@ public class TenantConfig {
             public boolean ignoreTable(String tableName) {
                 return IGNORE_TABLES.contains(tableName);
             }
-        }));
+        }, sqlCacheMaxEntries, sqlCacheMaxSqlLength));
         return interceptor;
     }
 }
@@ -0,0 +1,55 @@
+package com.stori.rule.controller;
+
+import com.stori.rule.common.Result;
+import com.stori.rule.dto.PackageProfile;
+import com.stori.rule.dto.RollupPoint;
+import com.stori.rule.service.ExecutionMetricsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    @Autowired
+    private ExecutionMetricsService executionMetricsService;
+
+    @GetMapping("/rollups")
+    @PreAuthorize("hasAuthority('RECORD_READ')")
+    public Result<List<RollupPoint>> getRollups(
+            @RequestParam String packageCode,
+            @RequestParam(required = false) Long versionId,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime,
+            @RequestParam(defaultValue = "1") Integer intervalMinutes) {
+
+        LocalDateTime end = endTime != null ? endTime : LocalDateTime.now();
+        LocalDateTime start = startTime != null ? startTime : end.minusHours(1);
+        return Result.success(executionMetricsService.queryRollups(packageCode, versionId, start, end, intervalMinutes));
+    }
+
+    @GetMapping("/profile")
+    @PreAuthorize("hasAuthority('RECORD_READ')")
+    public Result<PackageProfile> getProfile(@RequestParam String packageCode, @RequestParam(required = false) Long versionId) {
+        return Result.success(executionMetricsService.getNodeProfile(packageCode, versionId));
+    }
+
+    @PostMapping("/profile/enable")
+    @PreAuthorize("hasAuthority('PACKAGE_UPDATE')")
+    public Result<Void> setProfiling(@RequestParam String packageCode, @RequestParam Boolean enabled) {
+        executionMetricsService.setProfiling(packageCode, enabled);
+        return Result.success();
+    }
+
+    @DeleteMapping("/profile")
+    @PreAuthorize("hasAuthority('PACKAGE_UPDATE')")
+    public Result<Void> resetProfile(@RequestParam String packageCode) {
+        executionMetricsService.resetNodeProfile(packageCode);
+        return Result.success();
+    }
+}
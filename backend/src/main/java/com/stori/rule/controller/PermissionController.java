@@ -5,6 +5,7 @@ import com.stori.rule.entity.SysPermission;
 import com.stori.rule.entity.SysRolePermission;
 import com.stori.rule.mapper.SysPermissionMapper;
 import com.stori.rule.mapper.SysRolePermissionMapper;
+import com.stori.rule.security.PrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -22,6 +23,9 @@ public class PermissionController {
     @Autowired
     private SysRolePermissionMapper rolePermissionMapper;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
     @GetMapping
     @PreAuthorize("hasAuthority('PERMISSION_READ')")
     public Result<List<SysPermission>> list() {
@@ -53,6 +57,7 @@ public class PermissionController {
             rp.setPermissionId(permissionId);
             rolePermissionMapper.insert(rp);
         }
+        principalCache.invalidateAll();
         return Result.success(true);
     }
 
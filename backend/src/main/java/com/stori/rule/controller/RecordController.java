@@ -2,14 +2,18 @@ package com.stori.rule.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.stori.rule.common.Result;
+import com.stori.rule.dto.CursorPage;
 import com.stori.rule.entity.FeatureRecord;
 import com.stori.rule.entity.RuleExecutionRecord;
 import com.stori.rule.service.FeatureRecordService;
 import com.stori.rule.service.RuleExecutionRecordService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+
 @RestController
 @RequestMapping("/api/records")
 public class RecordController {
@@ -26,10 +30,25 @@ public class RecordController {
             @RequestParam(defaultValue = "1") Integer current,
             @RequestParam(defaultValue = "10") Integer pageSize,
             @RequestParam(required = false) String reqId,
-            @RequestParam(required = false) String featureName) {
+            @RequestParam(required = false) String featureName,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime) {
         
         Page<FeatureRecord> page = new Page<>(current, pageSize);
-        return Result.success(featureRecordService.page(page, reqId, featureName));
+        return Result.success(featureRecordService.page(page, reqId, featureName, startTime, endTime));
+    }
+
+    @GetMapping("/features/cursor")
+    @PreAuthorize("hasAuthority('RECORD_READ')")
+    public Result<CursorPage<FeatureRecord>> listFeatureRecordsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer limit,
+            @RequestParam(required = false) String reqId,
+            @RequestParam(required = false) String featureName,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime) {
+
+        return Result.success(featureRecordService.cursor(cursor, clampLimit(limit), reqId, featureName, startTime, endTime));
     }
 
     @GetMapping("/rules")
@@ -39,10 +58,26 @@ public class RecordController {
             @RequestParam(defaultValue = "10") Integer pageSize,
             @RequestParam(required = false) String reqId,
             @RequestParam(required = false) String packageCode,
-            @RequestParam(required = false) String status) {
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime) {
         
         Page<RuleExecutionRecord> page = new Page<>(current, pageSize);
-        return Result.success(ruleExecutionRecordService.page(page, reqId, packageCode, status));
+        return Result.success(ruleExecutionRecordService.page(page, reqId, packageCode, status, startTime, endTime));
+    }
+
+    @GetMapping("/rules/cursor")
+    @PreAuthorize("hasAuthority('RECORD_READ')")
+    public Result<CursorPage<RuleExecutionRecord>> listRuleRecordsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer limit,
+            @RequestParam(required = false) String reqId,
+            @RequestParam(required = false) String packageCode,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime) {
+
+        return Result.success(ruleExecutionRecordService.cursor(cursor, clampLimit(limit), reqId, packageCode, status, startTime, endTime));
     }
 
     @GetMapping("/rules/{id}")
@@ -50,4 +85,8 @@ public class RecordController {
     public Result<RuleExecutionRecord> getRuleRecord(@PathVariable Long id) {
         return Result.success(ruleExecutionRecordService.getById(id));
     }
+
+    private static int clampLimit(Integer limit) {
+        return Math.max(1, Math.min(limit, 200));
+    }
 }
@@ -6,6 +6,7 @@ import com.stori.rule.entity.SysPermission;
 import com.stori.rule.entity.SysRole;
 import com.stori.rule.mapper.SysPermissionMapper;
 import com.stori.rule.mapper.SysRoleMapper;
+import com.stori.rule.security.PrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -23,6 +24,9 @@ public class RoleController {
     @Autowired
     private SysPermissionMapper permissionMapper;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
     @GetMapping
     @PreAuthorize("hasAuthority('ROLE_READ')")
     public Result<List<SysRole>> list() {
@@ -51,12 +55,16 @@ public class RoleController {
     @PreAuthorize("hasAuthority('ROLE_UPDATE')")
     public Result<Boolean> update(@PathVariable Long id, @RequestBody SysRole role) {
         role.setId(id);
-        return Result.success(roleMapper.updateById(role) > 0);
+        boolean success = roleMapper.updateById(role) > 0;
+        principalCache.invalidateAll();
+        return Result.success(success);
     }
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAuthority('ROLE_DELETE')")
     public Result<Boolean> delete(@PathVariable Long id) {
-        return Result.success(roleMapper.deleteById(id) > 0);
+        boolean success = roleMapper.deleteById(id) > 0;
+        principalCache.invalidateAll();
+        return Result.success(success);
     }
 }
@@ -3,6 +3,7 @@ package com.stori.rule.controller;
 import org.springframework.security.access.prepost.PreAuthorize;
 import com.stori.rule.common.Result;
 import com.stori.rule.service.DroolsService;
+import com.stori.rule.service.execution.ExecutionLimiter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,11 +16,14 @@ public class RuleExecutionController {
     @Autowired
     private DroolsService droolsService;
 
+    @Autowired
+    private ExecutionLimiter executionLimiter;
+
     @PostMapping("/execute")
     public Result<Object> execute(@RequestBody Map<String, Object> payload) {
         String packageCode = (String) payload.get("packageCode");
         Map<String, Object> inputs = (Map<String, Object>) payload.get("inputs");
-        return Result.success(droolsService.execute(packageCode, inputs));
+        return Result.success(executionLimiter.call(packageCode, () -> droolsService.execute(packageCode, inputs)));
     }
 
     @PostMapping("/test")
@@ -27,7 +31,7 @@ public class RuleExecutionController {
     public Result<Object> test(@RequestBody Map<String, Object> payload) {
         String packageCode = (String) payload.get("packageCode");
         Map<String, Object> inputs = (Map<String, Object>) payload.get("inputs");
-        return Result.success(droolsService.executeDraft(packageCode, inputs));
+        return Result.success(executionLimiter.call(packageCode, () -> droolsService.executeDraft(packageCode, inputs)));
     }
 
     @PostMapping("/reload")
@@ -7,6 +7,7 @@ import com.stori.rule.dto.GraphDto;
 import com.stori.rule.entity.RuleDefinition;
 import com.stori.rule.entity.RulePackage;
 import com.stori.rule.mapper.RuleDefinitionMapper;
+import com.stori.rule.service.DroolsService;
 import com.stori.rule.service.RuleConverterService;
 import com.stori.rule.service.RulePackageService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,6 +32,9 @@ public class RulePackageController {
     @Autowired
     private com.stori.rule.service.RulePackageVersionService versionService;
 
+    @Autowired
+    private DroolsService droolsService;
+
     @GetMapping
     @PreAuthorize("hasAuthority('PACKAGE_READ')")
     public Result<List<RulePackage>> list(RulePackage rulePackage) {
@@ -94,6 +98,16 @@ public class RulePackageController {
         return Result.success(true);
     }
 
+    @PostMapping("/{id}/warmup")
+    @PreAuthorize("hasAuthority('PACKAGE_PUBLISH')")
+    public Result<Map<String, String>> warmUp(@PathVariable Long id) {
+        RulePackage rulePackage = rulePackageService.getById(id);
+        if (rulePackage == null) {
+            return Result.error("Package not found");
+        }
+        return Result.success(droolsService.warmUp(rulePackage.getCode()));
+    }
+
     @PostMapping("/{id}/offline")
     @PreAuthorize("hasAuthority('PACKAGE_OFFLINE')")
     public Result<Boolean> offline(@PathVariable Long id) {
@@ -5,6 +5,7 @@ import com.stori.rule.entity.SysRole;
 import com.stori.rule.entity.SysUserRole;
 import com.stori.rule.mapper.SysRoleMapper;
 import com.stori.rule.mapper.SysUserRoleMapper;
+import com.stori.rule.security.PrincipalCache;
 import org.springframework.security.access.prepost.PreAuthorize;
 import com.stori.rule.common.Result;
 import com.stori.rule.entity.SysUser;
@@ -36,6 +37,9 @@ public class UserController {
     @Autowired
     private com.stori.rule.mapper.SysPermissionMapper permissionMapper;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
     private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     @GetMapping
@@ -119,6 +123,7 @@ public class UserController {
             userRole.setRoleId(userDto.getRoleId());
             userRoleMapper.insert(userRole);
         }
+        principalCache.invalidateUser(id);
         
         return Result.success(success);
     }
@@ -128,8 +133,10 @@ public class UserController {
     public Result<Boolean> delete(@PathVariable Long id) {
         // Delete user roles first
         userRoleMapper.deleteByUserId(id);
+        boolean success = userMapper.deleteById(id) > 0;
+        principalCache.invalidateUser(id);
         
-        return Result.success(userMapper.deleteById(id) > 0);
+        return Result.success(success);
     }
 
     @GetMapping("/profile")
@@ -193,7 +200,9 @@ public class UserController {
                     user.setPassword(null);
                 }
                 
-                return Result.success(userMapper.updateById(user) > 0);
+                boolean success = userMapper.updateById(user) > 0;
+                principalCache.invalidateUser(userId);
+                return Result.success(success);
             }
         }
         return Result.error(401, "Not logged in");
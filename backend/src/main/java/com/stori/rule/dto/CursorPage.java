@@ -0,0 +1,29 @@
+package com.stori.rule.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. Pass nextCursor back to read the following page.
+ */
+@Data
+public class CursorPage<T> {
+    private List<T> records;
+    private String nextCursor;
+    private boolean hasMore;
+
+    /**
+     * @param rows up to limit + 1 rows, the extra row only signals that another page follows
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, String> cursorOf) {
+        CursorPage<T> page = new CursorPage<>();
+        page.setHasMore(rows.size() > limit);
+        page.setRecords(page.isHasMore() ? rows.subList(0, limit) : rows);
+        if (page.isHasMore()) {
+            page.setNextCursor(cursorOf.apply(rows.get(limit - 1)));
+        }
+        return page;
+    }
+}
@@ -0,0 +1,22 @@
+package com.stori.rule.dto;
+
+import lombok.Data;
+
+/**
+ * Profiled firing statistics of one rule graph node
+ */
+@Data
+public class NodeProfile {
+    private String nodeId;
+    private long fireCount;
+    private long matchCount;
+    private long cancelCount;
+    /** Time spent in consequences of the node's rules */
+    private double fireTimeMs;
+    private double avgFireTimeMs;
+    private double maxFireTimeMs;
+    /** Network evaluation time between the previous firing and this node firing */
+    private double evalTimeMs;
+    /** Share of the profiled time spent in this node, 0..1 */
+    private double heat;
+}
@@ -0,0 +1,17 @@
+package com.stori.rule.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Node profile of a package, aggregated over the profiled executions
+ */
+@Data
+public class PackageProfile {
+    private String packageCode;
+    /** Null when aggregated over all versions */
+    private Long versionId;
+    private boolean enabled;
+    private List<NodeProfile> nodes;
+}
@@ -0,0 +1,20 @@
+package com.stori.rule.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Execution metrics of one dashboard interval, merged from per-minute rollups
+ */
+@Data
+public class RollupPoint {
+    private LocalDateTime time;
+    private long execCount;
+    private long failCount;
+    private double avgTimeMs;
+    private double p50TimeMs;
+    private double p95TimeMs;
+    private double p99TimeMs;
+    private double maxTimeMs;
+}
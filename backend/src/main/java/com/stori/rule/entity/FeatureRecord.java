@@ -5,7 +5,13 @@ import com.baomidou.mybatisplus.annotation.TableName;
 import org.dromara.mpe.autotable.annotation.Table;
 import org.dromara.mpe.autotable.annotation.Column;
 import org.dromara.mpe.autotable.annotation.ColumnId;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.Data;
+import org.dromara.autotable.annotation.Index;
+import org.dromara.autotable.annotation.TableIndex;
+import org.dromara.autotable.annotation.TableIndexes;
 
 import com.baomidou.mybatisplus.annotation.FieldFill;
 import com.baomidou.mybatisplus.annotation.TableField;
@@ -14,10 +20,18 @@ import java.time.LocalDateTime;
 @Data
 @TableName("feature_record")
 @Table(value = "feature_record", comment = "特征执行记录表")
+// The tenant interceptor adds tenant_id to every query, so listing indexes lead with it
+@TableIndexes({
+        @TableIndex(name = "idx_fr_tenant_created", fields = {"tenantId", "createdAt", "id"}),
+        @TableIndex(name = "idx_fr_tenant_name_created", fields = {"tenantId", "featureName", "createdAt", "id"})
+})
 public class FeatureRecord {
+    // Snowflake ids of partitioned rows exceed the JavaScript number range
+    @JsonSerialize(using = ToStringSerializer.class)
     @ColumnId(mode = IdType.AUTO)
     private Long id;
 
+    @Index(name = "idx_fr_req_id")
     @Column(value = "req_id", length = 64, notNull = true, comment = "请求ID")
     private String reqId;
 
@@ -30,6 +44,10 @@ public class FeatureRecord {
     @Column(value = "feature_value", type = "TEXT", comment = "特征值(JSON)")
     private String featureValue;
 
+    @JsonIgnore
+    @Column(value = "feature_value_bin", type = "MEDIUMBLOB", comment = "特征值(二进制)")
+    private byte[] featureValueBin;
+
     @Column(value = "execution_time_ms", comment = "执行耗时(ms)")
     private Long executionTimeMs;
 
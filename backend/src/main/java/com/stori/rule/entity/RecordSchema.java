@@ -0,0 +1,36 @@
+package com.stori.rule.entity;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import org.dromara.autotable.annotation.Index;
+import org.dromara.autotable.annotation.enums.IndexTypeEnum;
+import org.dromara.mpe.autotable.annotation.Column;
+import org.dromara.mpe.autotable.annotation.ColumnId;
+import org.dromara.mpe.autotable.annotation.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Field dictionary of binary execution records, shared by all tenants
+ */
+@Data
+@TableName("record_schema")
+@Table(value = "record_schema", comment = "执行记录字段字典表")
+public class RecordSchema {
+    @ColumnId(mode = IdType.AUTO)
+    private Long id;
+
+    @Index(type = IndexTypeEnum.UNIQUE)
+    @Column(value = "schema_hash", notNull = true, comment = "字典哈希")
+    private Long schemaHash;
+
+    @Column(value = "field_names", type = "TEXT", notNull = true, comment = "字段编码列表(JSON)")
+    private String fieldNames;
+
+    @TableField(fill = FieldFill.INSERT)
+    @Column(value = "created_at", comment = "创建时间")
+    private LocalDateTime createdAt;
+}
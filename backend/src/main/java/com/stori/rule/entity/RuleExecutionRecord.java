@@ -5,7 +5,13 @@ import com.baomidou.mybatisplus.annotation.TableName;
 import org.dromara.mpe.autotable.annotation.Table;
 import org.dromara.mpe.autotable.annotation.Column;
 import org.dromara.mpe.autotable.annotation.ColumnId;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.Data;
+import org.dromara.autotable.annotation.Index;
+import org.dromara.autotable.annotation.TableIndex;
+import org.dromara.autotable.annotation.TableIndexes;
 
 import com.baomidou.mybatisplus.annotation.FieldFill;
 import com.baomidou.mybatisplus.annotation.TableField;
@@ -14,10 +20,19 @@ import java.time.LocalDateTime;
 @Data
 @TableName("rule_execution_record")
 @Table(value = "rule_execution_record", comment = "规则执行记录表")
+// The tenant interceptor adds tenant_id to every query, so listing indexes lead with it
+@TableIndexes({
+        @TableIndex(name = "idx_rer_tenant_created", fields = {"tenantId", "createdAt", "id"}),
+        @TableIndex(name = "idx_rer_tenant_package_created", fields = {"tenantId", "packageCode", "createdAt", "id"}),
+        @TableIndex(name = "idx_rer_tenant_status_created", fields = {"tenantId", "status", "createdAt", "id"})
+})
 public class RuleExecutionRecord {
+    // Snowflake ids of partitioned rows exceed the JavaScript number range
+    @JsonSerialize(using = ToStringSerializer.class)
     @ColumnId(mode = IdType.AUTO)
     private Long id;
 
+    @Index(name = "idx_rer_req_id")
     @Column(value = "req_id", length = 64, notNull = true, comment = "请求ID")
     private String reqId;
 
@@ -30,6 +45,17 @@ public class RuleExecutionRecord {
     @Column(value = "output_result", type = "TEXT", comment = "输出结果(JSON)")
     private String outputResult;
 
+    @JsonIgnore
+    @Column(value = "input_params_bin", type = "MEDIUMBLOB", comment = "输入参数(二进制)")
+    private byte[] inputParamsBin;
+
+    @JsonIgnore
+    @Column(value = "output_result_bin", type = "MEDIUMBLOB", comment = "输出结果(二进制)")
+    private byte[] outputResultBin;
+
+    @Column(value = "schema_hash", comment = "二进制字段字典哈希")
+    private Long schemaHash;
+
     @Column(value = "execution_time_ms", comment = "执行耗时(ms)")
     private Long executionTimeMs;
 
@@ -0,0 +1,68 @@
+package com.stori.rule.entity;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import org.dromara.autotable.annotation.TableIndex;
+import org.dromara.autotable.annotation.TableIndexes;
+import org.dromara.mpe.autotable.annotation.Column;
+import org.dromara.mpe.autotable.annotation.ColumnId;
+import org.dromara.mpe.autotable.annotation.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-minute execution metrics of a package version, written by each node
+ */
+@Data
+@TableName("rule_execution_rollup")
+@Table(value = "rule_execution_rollup", comment = "规则执行分钟汇总表")
+@TableIndexes({
+        @TableIndex(name = "idx_rollup_tenant_package_minute", fields = {"tenantId", "packageCode", "bucketMinute"})
+})
+public class RuleExecutionRollup {
+    @ColumnId(mode = IdType.AUTO)
+    private Long id;
+
+    @Column(value = "package_code", length = 100, notNull = true, comment = "规则包编码")
+    private String packageCode;
+
+    @Column(value = "version_id", comment = "版本ID, 草稿执行为空")
+    private Long versionId;
+
+    @Column(value = "bucket_minute", notNull = true, comment = "统计分钟")
+    private LocalDateTime bucketMinute;
+
+    @Column(value = "exec_count", comment = "执行次数")
+    private Long execCount;
+
+    @Column(value = "fail_count", comment = "失败次数")
+    private Long failCount;
+
+    @Column(value = "total_time_us", comment = "总耗时(us)")
+    private Long totalTimeUs;
+
+    @Column(value = "max_time_us", comment = "最大耗时(us)")
+    private Long maxTimeUs;
+
+    @Column(value = "p50_us", comment = "P50耗时(us)")
+    private Long p50Us;
+
+    @Column(value = "p95_us", comment = "P95耗时(us)")
+    private Long p95Us;
+
+    @Column(value = "p99_us", comment = "P99耗时(us)")
+    private Long p99Us;
+
+    @Column(value = "histogram", type = "TEXT", comment = "耗时直方图")
+    private String histogram;
+
+    @Column(value = "tenant_id", length = 50, defaultValue = "DEFAULT", comment = "租户ID")
+    private String tenantId;
+
+    @TableField(fill = FieldFill.INSERT)
+    @Column(value = "created_at", comment = "创建时间")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,48 @@
+package com.stori.rule.entity;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import org.dromara.autotable.annotation.TableIndex;
+import org.dromara.autotable.annotation.TableIndexes;
+import org.dromara.mpe.autotable.annotation.Column;
+import org.dromara.mpe.autotable.annotation.ColumnId;
+import org.dromara.mpe.autotable.annotation.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * A package version embedding another package through a RULE_PACKAGE node, extracted from the
+ * graph of the version. Embedded packages run at their own active version.
+ */
+@Data
+@TableName("rule_package_dependency")
+@Table(value = "rule_package_dependency", comment = "规则包依赖表")
+@TableIndexes({
+        @TableIndex(name = "idx_dependency_tenant_version", fields = {"tenantId", "versionId"})
+})
+public class RulePackageDependency {
+    @ColumnId(mode = IdType.AUTO)
+    private Long id;
+
+    @Column(value = "package_id", notNull = true, comment = "规则包ID")
+    private Long packageId;
+
+    @Column(value = "package_code", length = 100, notNull = true, comment = "规则包编码")
+    private String packageCode;
+
+    @Column(value = "version_id", comment = "规则包版本ID")
+    private Long versionId;
+
+    @Column(value = "depends_on_code", length = 100, notNull = true, comment = "被引用的规则包编码")
+    private String dependsOnCode;
+
+    @Column(value = "tenant_id", length = 50, defaultValue = "DEFAULT", comment = "租户ID")
+    private String tenantId;
+
+    @TableField(fill = FieldFill.INSERT)
+    @Column(value = "created_at", comment = "创建时间")
+    private LocalDateTime createdAt;
+}
@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.annotation.TableName;
 import org.dromara.mpe.autotable.annotation.Table;
 import org.dromara.mpe.autotable.annotation.Column;
 import org.dromara.mpe.autotable.annotation.ColumnId;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
 import com.baomidou.mybatisplus.annotation.FieldFill;
@@ -33,6 +34,12 @@ public class RulePackageVersion {
     @Column(value = "snapshot_data", type = "TEXT", comment = "执行快照(包含DRL和变量定义)")
     private String snapshotData;
 
+    /** Deflated runtime section of the snapshot, see RuntimeSnapshotCodec; null for older versions. Not selected by default */
+    @JsonIgnore
+    @TableField(select = false)
+    @Column(value = "runtime_data", type = "MEDIUMBLOB", comment = "运行时快照(压缩)")
+    private byte[] runtimeData;
+
     @Column(value = "tenant_id", length = 50, defaultValue = "DEFAULT", comment = "租户ID")
     private String tenantId;
     
@@ -61,6 +68,9 @@ public class RulePackageVersion {
     public String getSnapshotData() { return snapshotData; }
     public void setSnapshotData(String snapshotData) { this.snapshotData = snapshotData; }
 
+    public byte[] getRuntimeData() { return runtimeData; }
+    public void setRuntimeData(byte[] runtimeData) { this.runtimeData = runtimeData; }
+
     public String getTenantId() { return tenantId; }
     public void setTenantId(String tenantId) { this.tenantId = tenantId; }
 
@@ -0,0 +1,12 @@
+package com.stori.rule.exception;
+
+/**
+ * An execution turned away by the concurrency limit, answered with 429 so callers can back off
+ * and retry. Thrown under overload, so it carries no stack trace.
+ */
+public class ExecutionRejectedException extends RuntimeException {
+
+    public ExecutionRejectedException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -3,7 +3,9 @@ package com.stori.rule.exception;
 import com.stori.rule.common.Result;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 @RestControllerAdvice
@@ -17,6 +19,13 @@ public class GlobalExceptionHandler {
         return Result.error(e.getMessage());
     }
 
+    @ExceptionHandler(ExecutionRejectedException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public Result<String> handleExecutionRejected(ExecutionRejectedException e) {
+        log.debug("Execution rejected: {}", e.getMessage());
+        return Result.error(HttpStatus.TOO_MANY_REQUESTS.value(), e.getMessage());
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public Result<String> handleRuntimeException(RuntimeException e) {
         log.error("Runtime error", e);
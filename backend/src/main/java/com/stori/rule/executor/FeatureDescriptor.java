@@ -0,0 +1,45 @@
+package com.stori.rule.executor;
+
+import com.stori.rule.entity.Feature;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Immutable, pre-compiled view of a Feature.
+ * Built once by the owning executor when package metadata is loaded, so that
+ * the execution path works from parsed config and binding plans only.
+ */
+public final class FeatureDescriptor {
+
+    private final Feature feature;
+    private final FeatureExecutor executor;
+    private final Map<String, Object> config;
+    private final Object plan;
+
+    public FeatureDescriptor(Feature feature, FeatureExecutor executor, Map<String, Object> config, Object plan) {
+        this.feature = feature;
+        this.executor = executor;
+        this.config = config != null ? Collections.unmodifiableMap(config) : Collections.emptyMap();
+        this.plan = plan;
+    }
+
+    public Feature getFeature() { return feature; }
+
+    public FeatureExecutor getExecutor() { return executor; }
+
+    /**
+     * Parsed feature config (read-only)
+     */
+    public Map<String, Object> getConfig() { return config; }
+
+    /**
+     * Executor specific binding plan (e.g. prepared RPC invocation or SQL template)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getPlan() { return (T) plan; }
+
+    public Object execute(Map<String, Object> context) {
+        return executor.execute(this, context);
+    }
+}
@@ -10,7 +10,25 @@ public interface FeatureExecutor {
      * @param context Context variables (e.g., userId)
      * @return The extracted value
      */
-    Object execute(Feature feature, Map<String, Object> context);
-    
+    default Object execute(Feature feature, Map<String, Object> context) {
+        return execute(compile(feature), context);
+    }
+
+    /**
+     * Pre-compile a feature definition (parse config, build binding plan).
+     * Called when package metadata is loaded, not on the execution path.
+     * @param feature The feature definition
+     * @return Immutable descriptor bound to this executor
+     */
+    FeatureDescriptor compile(Feature feature);
+
+    /**
+     * Execute feature extraction from a pre-compiled descriptor
+     * @param descriptor Descriptor produced by {@link #compile(Feature)}
+     * @param context Context variables (e.g., userId)
+     * @return The extracted value
+     */
+    Object execute(FeatureDescriptor descriptor, Map<String, Object> context);
+
     String getType();
 }
@@ -8,6 +8,7 @@ import com.alipay.sofa.rpc.config.ConsumerConfig;
 import com.stori.rule.entity.Feature;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -17,18 +18,41 @@ public class RpcFeatureExecutor implements FeatureExecutor {
 
     private final Map<String, GenericService> serviceCache = new ConcurrentHashMap<>();
 
+    /**
+     * Prepared invocation: resolved service handle, arg types and a template of
+     * constant args with the positions that are bound from the context.
+     */
+    private static final class RpcInvocation {
+        private final GenericService service;
+        private final String method;
+        private final String[] argTypes;
+        private final Object[] argTemplate;
+        private final int[] bindIndexes;
+        private final String[] bindKeys;
+
+        private RpcInvocation(GenericService service, String method, String[] argTypes,
+                              Object[] argTemplate, int[] bindIndexes, String[] bindKeys) {
+            this.service = service;
+            this.method = method;
+            this.argTypes = argTypes;
+            this.argTemplate = argTemplate;
+            this.bindIndexes = bindIndexes;
+            this.bindKeys = bindKeys;
+        }
+    }
+
     @Override
-    public Object execute(Feature feature, Map<String, Object> context) {
+    public FeatureDescriptor compile(Feature feature) {
         JSONObject config = JSON.parseObject(feature.getConfig());
         String interfaceName = config.getString("interfaceName");
         String method = config.getString("method");
         String group = config.getString("group");
         String version = config.getString("version");
         String uniqueId = config.getString("uniqueId");
-        
+
         // Generate cache key based on service identity
-        String cacheKey = String.format("%s:%s:%s:%s", interfaceName, group, version, uniqueId);
-        
+        String cacheKey = interfaceName + ":" + group + ":" + version + ":" + uniqueId;
+
         GenericService genericService = serviceCache.computeIfAbsent(cacheKey, k -> {
             ConsumerConfig<GenericService> consumerConfig = new ConsumerConfig<GenericService>()
                 .setInterfaceId(interfaceName)
@@ -41,39 +65,41 @@ public class RpcFeatureExecutor implements FeatureExecutor {
             return consumerConfig.refer();
         });
 
-        // Prepare arguments
-        // Assuming context contains args in order or we need a way to map them.
-        // For simplicity, let's assume the config defines arg types and values are in context or fixed.
-        // But usually RPC args are positional.
-        // Let's assume 'args' in config is a list of objects defining type and value/expression.
-        
-        // For now, to match the previous implementation's flexibility, let's assume we pass the whole context map 
-        // if the method signature expects a Map, or we need a more complex mapping.
-        // However, GenericService.$invoke takes (String methodName, String[] argTypes, Object[] args).
-        
-        // Let's try to get argTypes and args from config or context.
-        // If not present, maybe we just pass the context as a single map argument?
-        // Let's look at how the previous implementation did it: it replaced placeholders in URL.
-        
-        // Let's assume the config has "argTypes" and "args" (which can use placeholders).
-        
-        List<String> argTypesList = config.getJSONArray("argTypes").toJavaList(String.class);
-        String[] argTypes = argTypesList.toArray(new String[0]);
-        
+        // GenericService.$invoke takes (String methodName, String[] argTypes, Object[] args).
+        // Config defines "argTypes" and "args"; an arg of the form "{key}" is bound from the context.
+        JSONArray argTypesConfig = config.getJSONArray("argTypes");
+        String[] argTypes = argTypesConfig != null
+                ? argTypesConfig.toJavaList(String.class).toArray(new String[0])
+                : new String[0];
+
         JSONArray argsConfig = config.getJSONArray("args");
-        Object[] args = new Object[argsConfig.size()];
-        for (int i = 0; i < argsConfig.size(); i++) {
+        int argCount = argsConfig != null ? argsConfig.size() : 0;
+        Object[] argTemplate = new Object[argCount];
+        List<Integer> bindIndexes = new ArrayList<>();
+        List<String> bindKeys = new ArrayList<>();
+        for (int i = 0; i < argCount; i++) {
             Object argDef = argsConfig.get(i);
-            // Simple placeholder replacement if string
             if (argDef instanceof String && ((String) argDef).startsWith("{") && ((String) argDef).endsWith("}")) {
-                String key = ((String) argDef).substring(1, ((String) argDef).length() - 1);
-                args[i] = context.get(key);
+                bindIndexes.add(i);
+                bindKeys.add(((String) argDef).substring(1, ((String) argDef).length() - 1));
             } else {
-                args[i] = argDef;
+                argTemplate[i] = argDef;
             }
         }
 
-        return genericService.$invoke(method, argTypes, args);
+        RpcInvocation invocation = new RpcInvocation(genericService, method, argTypes, argTemplate,
+                bindIndexes.stream().mapToInt(Integer::intValue).toArray(), bindKeys.toArray(new String[0]));
+        return new FeatureDescriptor(feature, this, config, invocation);
+    }
+
+    @Override
+    public Object execute(FeatureDescriptor descriptor, Map<String, Object> context) {
+        RpcInvocation invocation = descriptor.getPlan();
+        Object[] args = invocation.argTemplate.clone();
+        for (int i = 0; i < invocation.bindIndexes.length; i++) {
+            args[invocation.bindIndexes[i]] = context.get(invocation.bindKeys[i]);
+        }
+        return invocation.service.$invoke(invocation.method, invocation.argTypes, args);
     }
 
     @Override
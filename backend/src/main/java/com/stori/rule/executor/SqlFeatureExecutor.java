@@ -7,6 +7,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 @Component
@@ -15,17 +17,68 @@ public class SqlFeatureExecutor implements FeatureExecutor {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    /**
+     * SQL split around its #{key} placeholders: fragments[0] key[0] fragments[1] ... fragments[n]
+     */
+    private static final class SqlTemplate {
+        private final String[] fragments;
+        private final String[] keys;
+
+        private SqlTemplate(String[] fragments, String[] keys) {
+            this.fragments = fragments;
+            this.keys = keys;
+        }
+
+        private static SqlTemplate parse(String sql) {
+            List<String> fragments = new ArrayList<>();
+            List<String> keys = new ArrayList<>();
+            int pos = 0;
+            while (true) {
+                int start = sql.indexOf("#{", pos);
+                int end = start >= 0 ? sql.indexOf('}', start + 2) : -1;
+                if (start < 0 || end < 0) {
+                    fragments.add(sql.substring(pos));
+                    break;
+                }
+                fragments.add(sql.substring(pos, start));
+                keys.add(sql.substring(start + 2, end));
+                pos = end + 1;
+            }
+            return new SqlTemplate(fragments.toArray(new String[0]), keys.toArray(new String[0]));
+        }
+
+        private String bind(Map<String, Object> context) {
+            if (keys.length == 0) return fragments[0];
+            StringBuilder sql = new StringBuilder(fragments[0]);
+            for (int i = 0; i < keys.length; i++) {
+                if (context.containsKey(keys[i])) {
+                    sql.append(context.get(keys[i]));
+                } else {
+                    // Unknown placeholders are left untouched
+                    sql.append("#{").append(keys[i]).append('}');
+                }
+                sql.append(fragments[i + 1]);
+            }
+            return sql.toString();
+        }
+    }
+
     @Override
-    public Object execute(Feature feature, Map<String, Object> context) {
+    public FeatureDescriptor compile(Feature feature) {
         JSONObject config = JSON.parseObject(feature.getConfig());
         String sql = config.getString("sql");
-        
+        return new FeatureDescriptor(feature, this, config, sql != null ? SqlTemplate.parse(sql) : null);
+    }
+
+    @Override
+    public Object execute(FeatureDescriptor descriptor, Map<String, Object> context) {
+        SqlTemplate template = descriptor.getPlan();
+        if (template == null) return null;
+
         // Simple parameter replacement (vulnerable to injection, use PreparedStatement in prod)
         // Better: Use named parameter jdbc template or parse placeholders
-        for (Map.Entry<String, Object> entry : context.entrySet()) {
-            sql = sql.replace("#{" + entry.getKey() + "}", String.valueOf(entry.getValue()));
-        }
-        
+        String sql = template.bind(context);
+
         // Execute
         // Assuming single value return for simplicity
         try {
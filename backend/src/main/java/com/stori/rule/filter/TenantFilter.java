@@ -15,6 +15,11 @@ import org.springframework.util.StringUtils;
 
 import java.io.IOException;
 
+/**
+ * Resolves the tenant of a request. API calls carry the X-Tenant-Id header and never touch the
+ * session; only the browser OAuth2 flow, which starts with a tenantId parameter and comes back
+ * without one, keeps the tenant in the session.
+ */
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE)
 public class TenantFilter implements Filter {
@@ -22,46 +27,55 @@ public class TenantFilter implements Filter {
     private static final String HEADER_TENANT_ID = "X-Tenant-Id";
     private static final String PARAM_TENANT_ID = "tenantId";
     private static final String SESSION_TENANT_ID = "SESSION_TENANT_ID";
+    /** Request attribute with the resolved tenant, also seen by async dispatches of the request */
+    public static final String REQUEST_TENANT_ID = TenantFilter.class.getName() + ".TENANT_ID";
 
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
         HttpServletRequest httpRequest = (HttpServletRequest) request;
-        HttpSession session = httpRequest.getSession(false); // Do not create session if not exists yet, or maybe we should?
-        
-        // 1. Try header
-        String tenantId = httpRequest.getHeader(HEADER_TENANT_ID);
-        
-        // 2. Try query param (useful for OAuth2 redirection initiation)
+        String tenantId = resolve(httpRequest);
         if (!StringUtils.hasText(tenantId)) {
-            tenantId = httpRequest.getParameter(PARAM_TENANT_ID);
+            tenantId = TenantContext.DEFAULT_TENANT_ID;
         }
+        httpRequest.setAttribute(REQUEST_TENANT_ID, tenantId);
 
-        // 3. If found, save to session (create session if needed)
+        TenantContext.setTenantId(tenantId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private String resolve(HttpServletRequest httpRequest) {
+        // 1. Header, stateless
+        String tenantId = httpRequest.getHeader(HEADER_TENANT_ID);
         if (StringUtils.hasText(tenantId)) {
-            session = httpRequest.getSession(true);
-            session.setAttribute(SESSION_TENANT_ID, tenantId);
-        } else {
-            // 4. If not found, try to get from session
-            if (session != null) {
-                Object sessionTenantId = session.getAttribute(SESSION_TENANT_ID);
-                if (sessionTenantId instanceof String) {
-                    tenantId = (String) sessionTenantId;
-                }
-            }
+            return tenantId;
+        }
+
+        // 2. Async dispatch of a request resolved before
+        Object resolved = httpRequest.getAttribute(REQUEST_TENANT_ID);
+        if (resolved instanceof String) {
+            return (String) resolved;
         }
 
-        // 5. Set context (if null/empty, TenantContext.getTenantId() will return DEFAULT)
+        // 3. Query param starting the OAuth2 redirection, remembered for the callback
+        tenantId = httpRequest.getParameter(PARAM_TENANT_ID);
         if (StringUtils.hasText(tenantId)) {
-            TenantContext.setTenantId(tenantId);
-        } else {
-            TenantContext.setTenantId(TenantContext.DEFAULT_TENANT_ID);
+            httpRequest.getSession(true).setAttribute(SESSION_TENANT_ID, tenantId);
+            return tenantId;
         }
 
-        try {
-            chain.doFilter(request, response);
-        } finally {
-            TenantContext.clear();
+        // 4. Session of a browser flow, never created here
+        HttpSession session = httpRequest.getSession(false);
+        if (session != null) {
+            Object sessionTenantId = session.getAttribute(SESSION_TENANT_ID);
+            if (sessionTenantId instanceof String) {
+                return (String) sessionTenantId;
+            }
         }
+        return null;
     }
 }
@@ -0,0 +1,11 @@
+package com.stori.rule.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.stori.rule.entity.RecordSchema;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+@Mapper
+public interface RecordSchemaMapper extends BaseMapper<RecordSchema> {
+    RecordSchema selectByHash(@Param("schemaHash") Long schemaHash);
+}
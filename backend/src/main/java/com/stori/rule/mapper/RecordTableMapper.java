@@ -0,0 +1,23 @@
+package com.stori.rule.mapper;
+
+import com.baomidou.mybatisplus.annotation.InterceptorIgnore;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DDL for time-partitioned record tables. Table names come from RecordTableManager only.
+ */
+@Mapper
+@InterceptorIgnore(tenantLine = "true")
+public interface RecordTableMapper {
+    int createTableLike(@Param("table") String table, @Param("base") String base);
+
+    int dropTable(@Param("table") String table);
+
+    List<String> selectTableNames(@Param("prefix") String prefix);
+
+    int deleteBefore(@Param("table") String table, @Param("before") LocalDateTime before, @Param("limit") int limit);
+}
@@ -1,12 +1,38 @@
 package com.stori.rule.mapper;
 
+import com.baomidou.mybatisplus.annotation.InterceptorIgnore;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.stori.rule.entity.RuleExecutionRecord;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Table-parameterized statements take a table name resolved by RecordTableManager
+ */
 @Mapper
 public interface RuleExecutionRecordMapper extends BaseMapper<RuleExecutionRecord> {
-    Page<RuleExecutionRecord> selectPageByCondition(Page<RuleExecutionRecord> page, @Param("reqId") String reqId, @Param("packageCode") String packageCode, @Param("status") String status);
+    long countByCondition(@Param("table") String table, @Param("reqId") String reqId, @Param("packageCode") String packageCode, @Param("status") String status,
+                          @Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+
+    List<RuleExecutionRecord> selectByCondition(@Param("table") String table, @Param("reqId") String reqId, @Param("packageCode") String packageCode, @Param("status") String status,
+                                                @Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime,
+                                                @Param("offset") long offset, @Param("limit") long limit);
+
+    /**
+     * Keyset page ordered by (created_at, id) descending, starting after the cursor when given
+     */
+    List<RuleExecutionRecord> selectByCursor(@Param("table") String table, @Param("reqId") String reqId, @Param("packageCode") String packageCode, @Param("status") String status,
+                                             @Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime,
+                                             @Param("cursorTime") LocalDateTime cursorTime, @Param("cursorId") Long cursorId, @Param("limit") int limit);
+
+    RuleExecutionRecord selectByIdFromTable(@Param("table") String table, @Param("id") Long id);
+
+    /**
+     * Rows carry their own tenant_id, so the tenant interceptor does not parse the multi-row statement
+     */
+    @InterceptorIgnore(tenantLine = "true")
+    int insertBatch(@Param("table") String table, @Param("list") List<RuleExecutionRecord> records);
 }
@@ -0,0 +1,28 @@
+package com.stori.rule.mapper;
+
+import com.baomidou.mybatisplus.annotation.InterceptorIgnore;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.stori.rule.entity.RuleExecutionRollup;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface RuleExecutionRollupMapper extends BaseMapper<RuleExecutionRollup> {
+    List<RuleExecutionRollup> selectRange(@Param("packageCode") String packageCode, @Param("versionId") Long versionId,
+                                          @Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * Rows carry their own tenant_id, so the tenant interceptor does not parse the multi-row statement
+     */
+    @InterceptorIgnore(tenantLine = "true")
+    int insertBatch(@Param("list") List<RuleExecutionRollup> rollups);
+
+    /**
+     * Retention applies to all tenants
+     */
+    @InterceptorIgnore(tenantLine = "true")
+    int deleteBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
@@ -0,0 +1,13 @@
+package com.stori.rule.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.stori.rule.entity.RulePackageDependency;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface RulePackageDependencyMapper extends BaseMapper<RulePackageDependency> {
+    List<RulePackageDependency> selectByVersionId(@Param("versionId") Long versionId);
+}
@@ -1,5 +1,6 @@
 package com.stori.rule.mapper;
 
+import com.baomidou.mybatisplus.annotation.InterceptorIgnore;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.stori.rule.entity.RulePackage;
 import org.apache.ibatis.annotations.Mapper;
@@ -9,4 +10,16 @@ import org.apache.ibatis.annotations.Param;
 public interface RulePackageMapper extends BaseMapper<RulePackage> {
     RulePackage selectByCode(@Param("code") String code);
     java.util.List<RulePackage> selectList(@Param("param") RulePackage rulePackage);
+
+    /**
+     * Packages with an active version across all tenants, most executed since the given time first
+     */
+    @InterceptorIgnore(tenantLine = "true")
+    java.util.List<RulePackage> selectActiveByExecutions(@Param("since") java.time.LocalDateTime since);
+
+    /**
+     * Tenant, code and active version of every package with one, across all tenants
+     */
+    @InterceptorIgnore(tenantLine = "true")
+    java.util.List<RulePackage> selectActiveVersions();
 }
@@ -11,4 +11,11 @@ import java.util.List;
 public interface RulePackageVersionMapper extends BaseMapper<RulePackageVersion> {
     List<RulePackageVersion> selectByPackageIdOrderByCreatedAtDesc(@Param("packageId") Long packageId);
     RulePackageVersion selectLatestByPackageId(@Param("packageId") Long packageId);
+
+    /**
+     * Only id and runtime_data, null when the version does not exist
+     */
+    RulePackageVersion selectRuntimeData(@Param("id") Long id);
+
+    String selectSnapshotData(@Param("id") Long id);
 }
@@ -8,6 +8,8 @@ import org.apache.ibatis.annotations.Param;
 @Mapper
 public interface SysConfigMapper extends BaseMapper<SysConfig> {
     SysConfig selectByKey(@Param("key") String key);
+
+    String selectVersion();
     
     int deleteByKey(@Param("key") String key);
 }
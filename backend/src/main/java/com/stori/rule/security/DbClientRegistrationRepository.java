@@ -1,28 +1,50 @@
 package com.stori.rule.security;
 
+import com.stori.rule.common.TenantContext;
 import com.stori.rule.service.SysConfigService;
+import com.stori.rule.service.config.SysConfigChangedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.oauth2.client.registration.ClientRegistration;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
 import org.springframework.security.oauth2.core.oidc.IdTokenClaimNames;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Configuration
 public class DbClientRegistrationRepository implements ClientRegistrationRepository {
 
     @Autowired
     private SysConfigService sysConfigService;
 
+    // Google registration by tenant, rebuilt when a google.* config changes
+    private final Map<String, ClientRegistration> googleRegistrations = new ConcurrentHashMap<>();
+
     @Override
     public ClientRegistration findByRegistrationId(String registrationId) {
         if ("google".equalsIgnoreCase(registrationId)) {
-            return getGoogleClientRegistration();
+            String tenantId = TenantContext.getTenantId();
+            ClientRegistration registration = googleRegistrations.get(tenantId);
+            if (registration == null) {
+                registration = getGoogleClientRegistration();
+                if (registration != null) {
+                    googleRegistrations.put(tenantId, registration);
+                }
+            }
+            return registration;
         }
         return null;
     }
 
+    @EventListener(condition = "#event.key.startsWith('google.')")
+    public void onGoogleConfigChanged(SysConfigChangedEvent event) {
+        googleRegistrations.remove(event.getTenantId());
+    }
+
     private ClientRegistration getGoogleClientRegistration() {
         String clientId = sysConfigService.getValue("google.client.id");
         String clientSecret = sysConfigService.getValue("google.client.secret");
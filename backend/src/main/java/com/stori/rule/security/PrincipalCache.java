@@ -0,0 +1,130 @@
+package com.stori.rule.security;
+
+import com.stori.rule.common.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Authenticated principals by tenant, user and token issue time, so authenticated requests do not
+ * reload the user, roles and permissions.
+ * <p>
+ * Grant changes stamp a version (a timestamp) globally or per user; cached principals loaded before
+ * the stamp are reloaded. Versions live in this instance only, so the TTL bounds how long another
+ * instance can serve authorities that were revoked elsewhere.
+ */
+@Slf4j
+@Component
+public class PrincipalCache {
+
+    @Value("${srule.security.principal-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${srule.security.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    private static final class Key {
+        private final String tenantId;
+        private final Long userId;
+        private final long issuedAt;
+
+        private Key(String tenantId, Long userId, long issuedAt) {
+            this.tenantId = tenantId;
+            this.userId = userId;
+            this.issuedAt = issuedAt;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return issuedAt == key.issuedAt && userId.equals(key.userId) && tenantId.equals(key.tenantId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tenantId, userId, issuedAt);
+        }
+    }
+
+    private static final class Entry {
+        private final UserDetails principal;
+        private final long loadedAt;
+
+        private Entry(UserDetails principal, long loadedAt) {
+            this.principal = principal;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final Map<Key, Entry> principals = new ConcurrentHashMap<>();
+    private final AtomicLong globalVersion = new AtomicLong(System.currentTimeMillis());
+    private final Map<Long, Long> userVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Principal of a verified token, cached or loaded
+     */
+    public UserDetails get(Long userId, long issuedAt) {
+        Key key = new Key(TenantContext.getTenantId(), userId, issuedAt);
+        long now = System.currentTimeMillis();
+        Entry entry = principals.get(key);
+        if (entry != null && isCurrent(entry.loadedAt, userId)) {
+            return entry.principal;
+        }
+        UserDetails principal = userDetailsService.loadUserById(userId);
+        if (principals.size() >= maxSize) {
+            // Entries only live for the TTL, dropping them all is cheaper than tracking recency
+            principals.clear();
+        }
+        principals.put(key, new Entry(principal, now));
+        return principal;
+    }
+
+    /**
+     * A role, permission or role assignment changed, every principal may be stale
+     */
+    public void invalidateAll() {
+        globalVersion.set(nextVersion());
+        log.debug("Invalidated all cached principals");
+    }
+
+    /**
+     * Grants or the account of one user changed
+     */
+    public void invalidateUser(Long userId) {
+        if (userId == null) return;
+        userVersions.put(userId, nextVersion());
+    }
+
+    /**
+     * Authorities loaded at the given time may still be used: within the TTL and not before a local grant change
+     */
+    private boolean isCurrent(long readAt, Long userId) {
+        return readAt >= versionOf(userId) && System.currentTimeMillis() - readAt < TimeUnit.SECONDS.toMillis(ttlSeconds);
+    }
+
+    private long versionOf(Long userId) {
+        Long userVersion = userVersions.get(userId);
+        long global = globalVersion.get();
+        return userVersion != null && userVersion > global ? userVersion : global;
+    }
+
+    /**
+     * Strictly after anything loaded or issued so far, even within the same millisecond
+     */
+    private long nextVersion() {
+        return System.currentTimeMillis() + 1;
+    }
+}
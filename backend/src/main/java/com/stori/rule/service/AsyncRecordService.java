@@ -1,7 +1,13 @@
 package com.stori.rule.service;
 
+import com.stori.rule.service.record.FieldDictionary;
+import com.stori.rule.service.record.RecordingPolicy;
+
 import java.util.Map;
 
+/**
+ * Execution recording. Calls only enqueue; rows are written in batches by the record pipeline.
+ */
 public interface AsyncRecordService {
     /**
      * Record feature execution asynchronously
@@ -10,8 +16,9 @@ public interface AsyncRecordService {
      * @param featureName Feature Name
      * @param value Feature Value
      * @param executionTime Execution Time in ms
+     * @param policy Recording policy of the package
      */
-    void recordFeature(String reqId, Long featureId, String featureName, Object value, long executionTime);
+    void recordFeature(String reqId, Long featureId, String featureName, Object value, long executionTime, RecordingPolicy policy);
 
     /**
      * Record rule execution asynchronously
@@ -22,6 +29,8 @@ public interface AsyncRecordService {
      * @param executionTime Execution Time in ms
      * @param status Status (SUCCESS/FAIL)
      * @param errorMsg Error Message
+     * @param policy Recording policy of the package, applied before the record is queued
+     * @param dictionary Field dictionary of the package version, used by the binary format
      */
-    void recordRuleExecution(String reqId, String packageCode, Map<String, Object> input, Map<String, Object> output, long executionTime, String status, String errorMsg);
+    void recordRuleExecution(String reqId, String packageCode, Map<String, Object> input, Map<String, Object> output, long executionTime, String status, String errorMsg, RecordingPolicy policy, FieldDictionary dictionary);
 }
@@ -24,4 +24,17 @@ public interface DroolsService {
      * @param packageCode The code of the rule package
      */
     void reloadRules(String packageCode);
+
+    /**
+     * Load and compile the active version of one package into the engine caches
+     * @param packageCode The code of the rule package
+     */
+    void compileActive(String packageCode);
+
+    /**
+     * Compile the active versions of a package and every package it embeds, in parallel
+     * @param packageCode The code of the rule package
+     * @return Outcome per package code, "OK" or the failure message
+     */
+    Map<String, String> warmUp(String packageCode);
 }
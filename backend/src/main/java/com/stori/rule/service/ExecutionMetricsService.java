@@ -0,0 +1,31 @@
+package com.stori.rule.service;
+
+import com.stori.rule.dto.PackageProfile;
+import com.stori.rule.dto.RollupPoint;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Execution trends served from pre-aggregated rollups instead of raw execution records
+ */
+public interface ExecutionMetricsService {
+    /**
+     * @param versionId null for all versions
+     * @param intervalMinutes width of each returned point
+     */
+    List<RollupPoint> queryRollups(String packageCode, Long versionId, LocalDateTime startTime, LocalDateTime endTime, int intervalMinutes);
+
+    /**
+     * Per-node profile collected by this instance while profiling is enabled
+     * @param versionId null for all versions
+     */
+    PackageProfile getNodeProfile(String packageCode, Long versionId);
+
+    /**
+     * Turns profiling of a package on or off on every instance; turning it off drops collected profiles
+     */
+    void setProfiling(String packageCode, boolean enabled);
+
+    void resetNodeProfile(String packageCode);
+}
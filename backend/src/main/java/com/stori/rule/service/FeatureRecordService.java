@@ -2,8 +2,13 @@ package com.stori.rule.service;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.stori.rule.dto.CursorPage;
 import com.stori.rule.entity.FeatureRecord;
 
+import java.time.LocalDateTime;
+
 public interface FeatureRecordService extends IService<FeatureRecord> {
-    Page<FeatureRecord> page(Page<FeatureRecord> page, String reqId, String featureName);
+    Page<FeatureRecord> page(Page<FeatureRecord> page, String reqId, String featureName, LocalDateTime startTime, LocalDateTime endTime);
+
+    CursorPage<FeatureRecord> cursor(String cursor, int limit, String reqId, String featureName, LocalDateTime startTime, LocalDateTime endTime);
 }
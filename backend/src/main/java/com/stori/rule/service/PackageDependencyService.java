@@ -0,0 +1,30 @@
+package com.stori.rule.service;
+
+import com.stori.rule.dto.GraphDto;
+import com.stori.rule.entity.RulePackage;
+
+import java.util.List;
+import java.util.Set;
+
+public interface PackageDependencyService {
+    /**
+     * Package codes embedded by the RULE_PACKAGE nodes of a graph
+     */
+    Set<String> extractDependencies(GraphDto graph);
+
+    /**
+     * Record the packages embedded by a new version, from its graph in stored JSON form
+     */
+    void saveDependencies(RulePackage rulePackage, Long versionId, String contentJson);
+
+    /**
+     * Throws when, with the package at the given version and every other package at its active
+     * version, a package reachable from it embeds a package already on the path
+     */
+    void checkCycles(String packageCode, Long versionId);
+
+    /**
+     * Packages reachable from the active version of this one, nearest first, without the package itself
+     */
+    List<String> transitiveDependencies(String packageCode);
+}
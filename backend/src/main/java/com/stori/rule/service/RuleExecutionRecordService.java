@@ -2,8 +2,13 @@ package com.stori.rule.service;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.stori.rule.dto.CursorPage;
 import com.stori.rule.entity.RuleExecutionRecord;
 
+import java.time.LocalDateTime;
+
 public interface RuleExecutionRecordService extends IService<RuleExecutionRecord> {
-    Page<RuleExecutionRecord> page(Page<RuleExecutionRecord> page, String reqId, String packageCode, String status);
+    Page<RuleExecutionRecord> page(Page<RuleExecutionRecord> page, String reqId, String packageCode, String status, LocalDateTime startTime, LocalDateTime endTime);
+
+    CursorPage<RuleExecutionRecord> cursor(String cursor, int limit, String reqId, String packageCode, String status, LocalDateTime startTime, LocalDateTime endTime);
 }
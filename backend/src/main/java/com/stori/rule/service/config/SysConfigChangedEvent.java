@@ -0,0 +1,52 @@
+package com.stori.rule.service.config;
+
+/**
+ * A config of a tenant was added, updated or deleted, on this instance or, noticed by the
+ * scheduled version check, on another one. Subscribe with
+ * {@code @EventListener(condition = "#event.key == 'some.key'")}.
+ */
+public class SysConfigChangedEvent {
+
+    private final String tenantId;
+    private final String key;
+    private final String oldValue;
+    private final String value;
+
+    public SysConfigChangedEvent(String tenantId, String key, String oldValue, String value) {
+        this.tenantId = tenantId;
+        this.key = key;
+        this.oldValue = oldValue;
+        this.value = value;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getOldValue() {
+        return oldValue;
+    }
+
+    /**
+     * New value, null when the config was deleted
+     */
+    public String getValue() {
+        return value;
+    }
+
+    public boolean isDeleted() {
+        return value == null;
+    }
+
+    public Long getLongValue() {
+        return value != null ? Long.valueOf(value.trim()) : null;
+    }
+
+    public Boolean getBooleanValue() {
+        return value != null ? Boolean.valueOf(value.trim()) : null;
+    }
+}
@@ -4,6 +4,7 @@ import com.stori.rule.dto.NodeDto;
 import com.stori.rule.entity.RuleVariable;
 import com.stori.rule.service.converter.AbstractNodeConverter;
 import com.stori.rule.service.converter.ConverterContext;
+import com.stori.rule.utils.TypeCoercion;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -72,8 +73,8 @@ public class RulePackageNodeConverter extends AbstractNodeConverter {
                     String targetType = subPackageVarTypes.getOrDefault(targetVar, (String) mapping.get("targetType"));
                     
                     if (sourceVar != null && targetVar != null) {
-                        drl.append("    Object inVal_").append(targetVar).append(" = com.stori.rule.utils.RuleExecutionHelper.extractValue($context, \"").append(sourceVar).append("\");\n");
-                        drl.append("    Object inConv_").append(targetVar).append(" = com.stori.rule.utils.RuleExecutionHelper.convert(inVal_").append(targetVar).append(", \"").append(targetType != null ? targetType : "OBJECT").append("\");\n");
+                        drl.append("    Object inVal_").append(targetVar).append(" = com.stori.rule.utils.PathExpression.of(\"").append(sourceVar).append("\").get($context);\n");
+                        drl.append("    Object inConv_").append(targetVar).append(" = com.stori.rule.utils.TypeCoercion.").append(TypeCoercion.of(targetType).name()).append(".apply(inVal_").append(targetVar).append(");\n");
                         drl.append("    subInputs.put(\"").append(targetVar).append("\", inConv_").append(targetVar).append(");\n");
                     }
                 }
@@ -98,9 +99,9 @@ public class RulePackageNodeConverter extends AbstractNodeConverter {
                     
                     if (sourceVar != null && targetVar != null) {
                         drl.append("    if (subOutputs != null) {\n");
-                        drl.append("        Object outVal_").append(sourceVar).append(" = com.stori.rule.utils.RuleExecutionHelper.extractValue(subOutputs, \"").append(sourceVar).append("\");\n");
-                        drl.append("        Object outConv_").append(sourceVar).append(" = com.stori.rule.utils.RuleExecutionHelper.convert(outVal_").append(sourceVar).append(", \"").append(targetType != null ? targetType : "OBJECT").append("\");\n");
-                        drl.append("        com.stori.rule.utils.RuleExecutionHelper.assignValue($context, \"").append(targetVar).append("\", outConv_").append(sourceVar).append(");\n");
+                        drl.append("        Object outVal_").append(sourceVar).append(" = com.stori.rule.utils.PathExpression.of(\"").append(sourceVar).append("\").get(subOutputs);\n");
+                        drl.append("        Object outConv_").append(sourceVar).append(" = com.stori.rule.utils.TypeCoercion.").append(TypeCoercion.of(targetType).name()).append(".apply(outVal_").append(sourceVar).append(");\n");
+                        drl.append("        com.stori.rule.utils.PathExpression.of(\"").append(targetVar).append("\").set($context, outConv_").append(sourceVar).append(");\n");
                         drl.append("    }\n");
                     }
                 }
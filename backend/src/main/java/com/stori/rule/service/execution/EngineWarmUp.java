@@ -0,0 +1,135 @@
+package com.stori.rule.service.execution;
+
+import com.stori.rule.common.TenantContext;
+import com.stori.rule.entity.RulePackage;
+import com.stori.rule.mapper.RulePackageMapper;
+import com.stori.rule.service.DroolsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compiles the active version of every package at startup so the first requests after a rollout do
+ * not pay for DRL compilation and snapshot parsing.
+ * <p>
+ * Runs after the other startup runners. The most executed packages of the last day are compiled
+ * before the runner returns, and Spring Boot only reports the instance ready to take traffic after
+ * that. The rest keep compiling in the background. Progress is reported as the engineWarmUp health.
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class EngineWarmUp implements CommandLineRunner, HealthIndicator {
+
+    @Value("${srule.engine.warmup.enabled:true}")
+    private boolean enabled;
+
+    /** Packages compiled before the instance is ready */
+    @Value("${srule.engine.warmup.top-n:50}")
+    private int topN;
+
+    /** Compilations at a time, 0 for one per processor */
+    @Value("${srule.engine.warmup.parallelism:0}")
+    private int parallelism;
+
+    /** Longest readiness is held for the top packages */
+    @Value("${srule.engine.warmup.timeout-seconds:120}")
+    private long timeoutSeconds;
+
+    @Value("${srule.engine.warmup.ranking-window-hours:24}")
+    private long rankingWindowHours;
+
+    @Autowired
+    private RulePackageMapper rulePackageMapper;
+
+    @Autowired
+    private DroolsService droolsService;
+
+    private volatile boolean ready;
+    private volatile int total;
+    private final AtomicInteger compiled = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            ready = true;
+            return;
+        }
+        List<RulePackage> packages;
+        try {
+            packages = rulePackageMapper.selectActiveByExecutions(LocalDateTime.now().minusHours(rankingWindowHours));
+        } catch (Exception e) {
+            log.error("Engine warm-up skipped, active packages could not be listed", e);
+            ready = true;
+            return;
+        }
+        total = packages.size();
+        if (packages.isEmpty()) {
+            ready = true;
+            return;
+        }
+
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(packages.size());
+        for (RulePackage pkg : packages) {
+            tasks.add(pool.submit(() -> compile(pkg)));
+        }
+        // Queued compilations finish in the background, the pool threads exit after them
+        pool.shutdown();
+
+        List<ForkJoinTask<?>> top = tasks.subList(0, Math.min(Math.max(topN, 0), tasks.size()));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        try {
+            for (ForkJoinTask<?> task : top) {
+                task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+            log.info("Engine warm-up compiled the top {} of {} packages in {} ms", top.size(), packages.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (TimeoutException e) {
+            log.warn("Engine warm-up of the top {} packages exceeded {}s, accepting traffic anyway", top.size(), timeoutSeconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // compile() handles its own failures, anything else must not keep the instance out of service
+            log.warn("Engine warm-up failed", e);
+        }
+        ready = true;
+    }
+
+    private void compile(RulePackage pkg) {
+        try {
+            TenantContext.runWithTenant(pkg.getTenantId(), () -> droolsService.compileActive(pkg.getCode()));
+            compiled.incrementAndGet();
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            log.warn("Engine warm-up failed for package {} of tenant {}: {}", pkg.getCode(), pkg.getTenantId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = ready ? Health.up() : Health.outOfService();
+        return builder
+                .withDetail("packages", total)
+                .withDetail("compiled", compiled.get())
+                .withDetail("failed", failed.get())
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.stori.rule.service.execution;
+
+import com.stori.rule.common.TenantContext;
+import com.stori.rule.exception.ExecutionRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caps concurrent executions per tenant and package.
+ * With request handling on virtual threads the servlet pool no longer bounds concurrency, so without
+ * a cap one hot package could take every database connection its features need. Executions that
+ * find no permit within the acquire timeout fail with {@link ExecutionRejectedException}, answered
+ * with 429.
+ */
+@Component
+public class ExecutionLimiter {
+
+    /** Concurrent executions per package, 0 for no limit */
+    @Value("${srule.execution.max-concurrent-per-package:0}")
+    private int maxConcurrent;
+
+    @Value("${srule.execution.acquire-timeout-ms:100}")
+    private long acquireTimeoutMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    public <T> T call(String packageCode, Supplier<T> execution) {
+        if (maxConcurrent <= 0 || packageCode == null) {
+            return execution.get();
+        }
+        String key = TenantContext.getTenantId() + ":" + packageCode;
+        Semaphore semaphore = permits.computeIfAbsent(key, k -> new Semaphore(maxConcurrent));
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting to execute package: " + packageCode);
+        }
+        if (!acquired) {
+            rejections.computeIfAbsent(key, k -> Counter.builder("srule.execution.rejected")
+                    .description("Executions rejected by the per-package concurrency limit")
+                    .tag("package", packageCode)
+                    .tag("tenant", TenantContext.getTenantId())
+                    .register(meterRegistry)).increment();
+            throw new ExecutionRejectedException("Too many concurrent executions of package: " + packageCode);
+        }
+        try {
+            return execution.get();
+        } finally {
+            semaphore.release();
+        }
+    }
+}
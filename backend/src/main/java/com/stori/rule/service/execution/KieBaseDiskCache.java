@@ -0,0 +1,298 @@
+package com.stori.rule.service.execution;
+
+import com.stori.rule.common.TenantContext;
+import com.stori.rule.entity.RulePackage;
+import com.stori.rule.mapper.RulePackageMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.drools.compiler.kie.builder.impl.InternalKieModule;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.KieModule;
+import org.kie.api.builder.Message;
+import org.kie.api.builder.ReleaseId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Compiled production KieBases kept on local disk, so restarts rebuild them from compiled kjars
+ * instead of compiling DRL again.
+ * <p>
+ * Files are named by tenant, package code, version id, the SHA-256 of the DRL and the Drools
+ * version, with tenant and code escaped so distinct ones never share a name, and hold the kjar written by KieBuilder behind a small header. Loading a kjar reuses the
+ * compiled consequence classes it carries; only the rete network is built again. Files that fail to
+ * load for any reason are deleted and the DRL is compiled as if the file was not there.
+ * <p>
+ * Kjars carry compiled classes that are loaded into this JVM, so the directory belongs to the
+ * application, is created readable by its owner only, and the cache turns itself off when the
+ * directory is writable by anyone else. Files of versions that are no longer active are pruned.
+ */
+@Slf4j
+@Component
+public class KieBaseDiskCache {
+
+    private static final int MAGIC = 0x53524b42;
+    private static final int FORMAT_VERSION = 1;
+    private static final String DROOLS_VERSION = droolsVersion();
+    private static final int SHA256_HEX_LENGTH = 64;
+
+    @Value("${srule.engine.kiebase-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${srule.engine.kiebase-cache.dir:./data/kiebase-cache}")
+    private String directory;
+
+    @Autowired
+    private RulePackageMapper rulePackageMapper;
+
+    private volatile boolean usable;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) return;
+        Path dir = Paths.get(directory).toAbsolutePath();
+        try {
+            createPrivateDirectories(dir);
+            if (isPosix(dir)) {
+                Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(dir);
+                if (permissions.contains(PosixFilePermission.GROUP_WRITE) || permissions.contains(PosixFilePermission.OTHERS_WRITE)) {
+                    log.warn("Compiled KieBase cache disabled, {} is writable by other users", dir);
+                    return;
+                }
+            }
+            usable = true;
+        } catch (IOException e) {
+            log.warn("Compiled KieBase cache disabled, {} is not usable: {}", dir, e.getMessage());
+        }
+    }
+
+    /**
+     * KieBase of a production version, loaded from disk when compiled before
+     */
+    public KieBase getOrCompile(String packageCode, Long versionId, List<String> drls) {
+        if (!enabled || !usable) {
+            return compile(packageCode, versionId, drls, null);
+        }
+        Path file = fileOf(packageCode, versionId, drls);
+        if (Files.isRegularFile(file)) {
+            try {
+                KieBase kieBase = build(read(file));
+                log.info("Loaded compiled KieBase for package: {}, version: {} from {}", packageCode, versionId, file);
+                return kieBase;
+            } catch (Exception e) {
+                log.warn("Discarding unusable compiled KieBase {}: {}", file, e.getMessage());
+                deleteQuietly(file);
+            }
+        }
+        return compile(packageCode, versionId, drls, file);
+    }
+
+    /**
+     * Compiles the DRL into a KieBase, storing the kjar when a file is given
+     */
+    private KieBase compile(String packageCode, Long versionId, List<String> drls, Path storeTo) {
+        KieServices ks = KieServices.Factory.get();
+        ReleaseId releaseId = ks.newReleaseId("com.stori.rule.compiled", nameOf(packageCode) + "-" + versionId,
+                "1.0." + UUID.randomUUID().toString().replace("-", ""));
+        KieFileSystem kfs = ks.newKieFileSystem();
+        kfs.generateAndWritePomXML(releaseId);
+        for (int i = 0; i < drls.size(); i++) {
+            kfs.write("src/main/resources/rules/rule" + i + ".drl", drls.get(i));
+        }
+        KieBuilder kieBuilder = ks.newKieBuilder(kfs).buildAll();
+        if (kieBuilder.getResults().hasMessages(Message.Level.ERROR)) {
+            throw new RuntimeException("Unable to compile package " + packageCode + ": " + kieBuilder.getResults().getMessages(Message.Level.ERROR));
+        }
+        try {
+            if (storeTo != null) {
+                write(storeTo, ((InternalKieModule) kieBuilder.getKieModule()).getBytes());
+            }
+            return ks.newKieContainer(releaseId).newKieBase(ks.newKieBaseConfiguration());
+        } finally {
+            // The KieBase keeps what it needs, the repository would otherwise hold every version ever built
+            ks.getRepository().removeKieModule(releaseId);
+        }
+    }
+
+    /**
+     * Deletes files of versions no other than the active ones, and leftovers of interrupted writes
+     */
+    @Scheduled(cron = "${srule.engine.kiebase-cache.prune-cron:0 15 * * * *}")
+    public void prune() {
+        if (!enabled || !usable) return;
+        Path root = Paths.get(directory);
+        // Active version by escaped package code, per tenant directory
+        Map<String, Map<String, Long>> active = new HashMap<>();
+        for (RulePackage pkg : rulePackageMapper.selectActiveVersions()) {
+            active.computeIfAbsent(nameOf(pkg.getTenantId()), k -> new HashMap<>())
+                    .put(nameOf(pkg.getCode()), pkg.getActiveVersionId());
+        }
+        int deleted = 0;
+        try (DirectoryStream<Path> tenants = Files.newDirectoryStream(root)) {
+            for (Path tenantDir : tenants) {
+                if (!Files.isDirectory(tenantDir)) continue;
+                Map<String, Long> versions = active.getOrDefault(tenantDir.getFileName().toString(), Collections.emptyMap());
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(tenantDir)) {
+                    for (Path file : files) {
+                        if (!isActive(file.getFileName().toString(), versions)) {
+                            deleteQuietly(file);
+                            deleted++;
+                        }
+                    }
+                }
+                // Only goes when nothing is left in it
+                deleteQuietly(tenantDir);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to prune compiled KieBases in {}: {}", root, e.getMessage());
+        }
+        if (deleted > 0) {
+            log.info("Pruned {} compiled KieBases of inactive versions", deleted);
+        }
+    }
+
+    /**
+     * Whether a file name of {@link #fileOf} is of an active version and the running Drools version.
+     * The name is read from the right, as the version id and hash never contain the separator but codes may.
+     */
+    private static boolean isActive(String name, Map<String, Long> versions) {
+        String suffix = "-" + DROOLS_VERSION + ".kjar";
+        if (!name.endsWith(suffix)) return false;
+        String rest = name.substring(0, name.length() - suffix.length());
+        int hashStart = rest.lastIndexOf('-') + 1;
+        if (hashStart == 0 || rest.length() - hashStart != SHA256_HEX_LENGTH) return false;
+        int versionStart = rest.lastIndexOf('-', hashStart - 2) + 1;
+        if (versionStart == 0) return false;
+        Long version = versions.get(rest.substring(0, versionStart - 1));
+        return version != null && version.toString().equals(rest.substring(versionStart, hashStart - 1));
+    }
+
+    private KieBase build(byte[] kjar) {
+        KieServices ks = KieServices.Factory.get();
+        KieModule module = ks.getRepository().addKieModule(ks.getResources().newByteArrayResource(kjar));
+        try {
+            return ks.newKieContainer(module.getReleaseId()).newKieBase(ks.newKieBaseConfiguration());
+        } finally {
+            ks.getRepository().removeKieModule(module.getReleaseId());
+        }
+    }
+
+    private byte[] read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                throw new IOException("not a compiled KieBase of this format");
+            }
+            int length = buffer.getInt();
+            if (length != buffer.remaining()) {
+                throw new IOException("truncated");
+            }
+            byte[] kjar = new byte[length];
+            buffer.get(kjar);
+            return kjar;
+        }
+    }
+
+    private void write(Path file, byte[] kjar) {
+        try {
+            createPrivateDirectories(file.getParent());
+            // Written aside and moved, so a concurrent or interrupted write never leaves a partial file
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(12).putInt(MAGIC).putInt(FORMAT_VERSION).putInt(kjar.length);
+                header.flip();
+                channel.write(new ByteBuffer[]{header, ByteBuffer.wrap(kjar)});
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to store compiled KieBase {}: {}", file, e.getMessage());
+        }
+    }
+
+    private Path fileOf(String packageCode, Long versionId, List<String> drls) {
+        String name = nameOf(packageCode) + "-" + versionId + "-" + sha256(drls) + "-" + DROOLS_VERSION + ".kjar";
+        return Paths.get(directory, nameOf(TenantContext.getTenantId()), name);
+    }
+
+    private static String sha256(List<String> drls) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String drl : drls) {
+                digest.update(drl.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Codes are user input: letters, digits and '-' are kept and every other byte becomes _xx, so
+     * distinct codes never map to the same file, artifact or directory name
+     */
+    private static String nameOf(String code) {
+        StringBuilder name = new StringBuilder(code.length());
+        for (byte b : code.getBytes(StandardCharsets.UTF_8)) {
+            if ((b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9') || b == '-') {
+                name.append((char) b);
+            } else {
+                name.append('_').append(HexFormat.of().toHexDigits(b));
+            }
+        }
+        return name.toString();
+    }
+
+    private static String droolsVersion() {
+        String version = KieBase.class.getPackage().getImplementationVersion();
+        return version != null ? version.replaceAll("[^A-Za-z0-9.]", "_") : "unknown";
+    }
+
+    private static void createPrivateDirectories(Path dir) throws IOException {
+        if (Files.exists(dir)) return;
+        if (isPosix(dir)) {
+            Files.createDirectories(dir, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        } else {
+            Files.createDirectories(dir);
+        }
+    }
+
+    private static boolean isPosix(Path path) {
+        return path.getFileSystem().supportedFileAttributeViews().contains("posix");
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Could not delete {}", file, e);
+        }
+    }
+}
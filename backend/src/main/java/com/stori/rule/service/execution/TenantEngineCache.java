@@ -0,0 +1,231 @@
+package com.stori.rule.service.execution;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Engine cache partitioned by tenant, so equal package codes of different tenants never collide and
+ * each tenant evicts within its own weight budget. When the shared budget is exceeded the heaviest
+ * tenant gives up entries first, least recently used within a tenant.
+ * <p>
+ * Lookups are lock-free; concurrent misses of a key share one load, which runs outside any lock.
+ * Budgets of 0 or less are unlimited.
+ */
+@Slf4j
+public class TenantEngineCache<V> {
+
+    private final String name;
+    private final ToLongFunction<V> weigher;
+    private final long tenantBudget;
+    private final long totalBudget;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+    private final AtomicLong totalWeight = new AtomicLong();
+    private final AtomicLong clock = new AtomicLong();
+
+    private final class Node {
+        private final V value;
+        private final long weight;
+        private volatile long lastAccess;
+
+        private Node(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+            this.lastAccess = clock.incrementAndGet();
+        }
+    }
+
+    private final class Partition {
+        private final String tenantId;
+        private final Map<String, Node> entries = new ConcurrentHashMap<>();
+        private final Map<String, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+        // Guards weight accounting and eviction, never held during a load
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long weight;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        private Partition(String tenantId) {
+            this.tenantId = tenantId;
+        }
+    }
+
+    /**
+     * @param weigher      weight of a value, at least 1 is charged
+     * @param tenantBudget weight each tenant may hold
+     * @param totalBudget  weight of all tenants together
+     */
+    public TenantEngineCache(String name, ToLongFunction<V> weigher, long tenantBudget, long totalBudget, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.weigher = weigher;
+        this.tenantBudget = tenantBudget;
+        this.totalBudget = totalBudget;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public V get(String tenantId, String key, Supplier<V> loader) {
+        Partition partition = partitionOf(tenantId);
+        Node node = partition.entries.get(key);
+        if (node != null) {
+            node.lastAccess = clock.incrementAndGet();
+            partition.hits.increment();
+            return node.value;
+        }
+        partition.misses.increment();
+
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = partition.loading.putIfAbsent(key, created);
+        if (existing != null) {
+            return join(existing);
+        }
+        try {
+            // Another load may have finished between the lookup and claiming the key
+            node = partition.entries.get(key);
+            V value = node != null ? node.value : loader.get();
+            if (node == null) {
+                put(partition, key, value);
+            }
+            created.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            // Failed loads are not cached, waiters see the same failure
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            partition.loading.remove(key, created);
+        }
+    }
+
+    public void remove(String tenantId, String key) {
+        Partition partition = partitions.get(tenantId);
+        if (partition == null) return;
+        partition.lock.lock();
+        try {
+            Node node = partition.entries.remove(key);
+            if (node != null) {
+                partition.weight -= node.weight;
+                totalWeight.addAndGet(-node.weight);
+            }
+        } finally {
+            partition.lock.unlock();
+        }
+    }
+
+    private void put(Partition partition, String key, V value) {
+        Node node = new Node(value, Math.max(1, weigher.applyAsLong(value)));
+        partition.lock.lock();
+        try {
+            Node previous = partition.entries.put(key, node);
+            long delta = node.weight - (previous != null ? previous.weight : 0);
+            partition.weight += delta;
+            totalWeight.addAndGet(delta);
+            // A single entry over the budget is kept, evicting it would reload it on every execution
+            while (tenantBudget > 0 && partition.weight > tenantBudget && evictOldest(partition, key)) {
+                // Keep evicting
+            }
+        } finally {
+            partition.lock.unlock();
+        }
+        if (totalBudget > 0 && totalWeight.get() > totalBudget) {
+            evictHeaviestTenants(partition, key);
+        }
+    }
+
+    /**
+     * Evicts from whichever tenant holds the most weight until everyone fits the shared budget
+     */
+    private void evictHeaviestTenants(Partition inserting, String insertedKey) {
+        while (totalWeight.get() > totalBudget) {
+            Partition heaviest = null;
+            for (Partition partition : partitions.values()) {
+                if (heaviest == null || partition.weight > heaviest.weight) {
+                    heaviest = partition;
+                }
+            }
+            if (heaviest == null) return;
+            heaviest.lock.lock();
+            try {
+                if (!evictOldest(heaviest, heaviest == inserting ? insertedKey : null)) return;
+            } finally {
+                heaviest.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Evicts the least recently used entry other than the protected key. Caller holds the partition lock.
+     */
+    private boolean evictOldest(Partition partition, String protectedKey) {
+        String oldestKey = null;
+        Node oldest = null;
+        for (Map.Entry<String, Node> entry : partition.entries.entrySet()) {
+            if (entry.getKey().equals(protectedKey)) continue;
+            if (oldest == null || entry.getValue().lastAccess < oldest.lastAccess) {
+                oldestKey = entry.getKey();
+                oldest = entry.getValue();
+            }
+        }
+        if (oldest == null || !partition.entries.remove(oldestKey, oldest)) {
+            return false;
+        }
+        partition.weight -= oldest.weight;
+        totalWeight.addAndGet(-oldest.weight);
+        partition.evictions.increment();
+        log.info("Evicted {} cache entry {} of tenant {} (weight {})", name, oldestKey, partition.tenantId, oldest.weight);
+        return true;
+    }
+
+    private Partition partitionOf(String tenantId) {
+        Partition partition = partitions.get(tenantId);
+        if (partition == null) {
+            partition = partitions.computeIfAbsent(tenantId, Partition::new);
+            register(partition);
+        }
+        return partition;
+    }
+
+    private void register(Partition partition) {
+        if (meterRegistry == null) return;
+        // Registering the same meter twice returns the existing one, so racing first lookups are harmless
+        FunctionCounter.builder("srule.engine.cache.requests", partition.hits, LongAdder::sum)
+                .description("Engine cache lookups per tenant")
+                .tags("cache", name, "tenant", partition.tenantId, "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("srule.engine.cache.requests", partition.misses, LongAdder::sum)
+                .description("Engine cache lookups per tenant")
+                .tags("cache", name, "tenant", partition.tenantId, "result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("srule.engine.cache.evictions", partition.evictions, LongAdder::sum)
+                .description("Engine cache evictions per tenant")
+                .tags("cache", name, "tenant", partition.tenantId)
+                .register(meterRegistry);
+        Gauge.builder("srule.engine.cache.weight", partition, p -> p.weight)
+                .description("Engine cache weight held per tenant")
+                .tags("cache", name, "tenant", partition.tenantId)
+                .register(meterRegistry);
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+}
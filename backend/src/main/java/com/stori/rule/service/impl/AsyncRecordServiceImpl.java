@@ -1,16 +1,18 @@
 package com.stori.rule.service.impl;
 
-import com.alibaba.fastjson.JSON;
-import com.stori.rule.entity.FeatureRecord;
-import com.stori.rule.entity.RuleExecutionRecord;
-import com.stori.rule.mapper.FeatureRecordMapper;
-import com.stori.rule.mapper.RuleExecutionRecordMapper;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.stori.rule.common.TenantContext;
 import com.stori.rule.service.AsyncRecordService;
+import com.stori.rule.service.record.FieldDictionary;
+import com.stori.rule.service.record.RecordEvent;
+import com.stori.rule.service.record.RecordPipeline;
+import com.stori.rule.service.record.RecordTableManager;
+import com.stori.rule.service.record.RecordingPolicy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @Service
@@ -18,42 +20,43 @@ import java.util.Map;
 public class AsyncRecordServiceImpl implements AsyncRecordService {
 
     @Autowired
-    private FeatureRecordMapper featureRecordMapper;
+    private RecordPipeline recordPipeline;
 
     @Autowired
-    private RuleExecutionRecordMapper ruleExecutionRecordMapper;
+    private RecordTableManager recordTableManager;
 
     @Override
-    @Async
-    public void recordFeature(String reqId, Long featureId, String featureName, Object value, long executionTime) {
-        try {
-            FeatureRecord record = new FeatureRecord();
-            record.setReqId(reqId);
-            record.setFeatureId(featureId);
-            record.setFeatureName(featureName);
-            record.setFeatureValue(JSON.toJSONString(value));
-            record.setExecutionTimeMs(executionTime);
-            featureRecordMapper.insert(record);
-        } catch (Exception e) {
-            log.error("Failed to record feature execution", e);
-        }
+    public void recordFeature(String reqId, Long featureId, String featureName, Object value, long executionTime, RecordingPolicy policy) {
+        RecordEvent event = RecordEvent.feature(reqId, featureId, featureName, value, executionTime);
+        event.setMaxPayloadBytes(policy.getMaxPayloadBytes());
+        event.setFormat(policy.getFormat());
+        enqueue(event);
     }
 
     @Override
-    @Async
-    public void recordRuleExecution(String reqId, String packageCode, Map<String, Object> input, Map<String, Object> output, long executionTime, String status, String errorMsg) {
-        try {
-            RuleExecutionRecord record = new RuleExecutionRecord();
-            record.setReqId(reqId);
-            record.setPackageCode(packageCode);
-            record.setInputParams(JSON.toJSONString(input));
-            record.setOutputResult(JSON.toJSONString(output));
-            record.setExecutionTimeMs(executionTime);
-            record.setStatus(status);
-            record.setErrorMessage(errorMsg);
-            ruleExecutionRecordMapper.insert(record);
-        } catch (Exception e) {
-            log.error("Failed to record rule execution", e);
+    public void recordRuleExecution(String reqId, String packageCode, Map<String, Object> input, Map<String, Object> output, long executionTime, String status, String errorMsg, RecordingPolicy policy, FieldDictionary dictionary) {
+        // Field lists and diffing build new maps here, so the drainer never sees a map the caller still mutates
+        RecordEvent event = RecordEvent.rule(reqId, packageCode, policy.filter(input), policy.output(input, output),
+                executionTime, status, errorMsg);
+        event.setMaxPayloadBytes(policy.getMaxPayloadBytes());
+        event.setFormat(policy.getFormat());
+        event.setDictionary(dictionary);
+        enqueue(event);
+    }
+
+    private void enqueue(RecordEvent event) {
+        // Capture tenant and time on the request thread; rows are written later by the drainers
+        event.setTenantId(TenantContext.getTenantId());
+        if (recordTableManager.isEnabled()) {
+            // The id carries the creation time, so a lookup by id knows the partition of the row
+            long id = IdWorker.getId();
+            event.setId(id);
+            event.setCreatedAt(RecordTableManager.createdAtOf(id));
+        } else {
+            event.setCreatedAt(LocalDateTime.now());
+        }
+        if (!recordPipeline.offer(event) && log.isDebugEnabled()) {
+            log.debug("Execution record dropped by overflow policy: {}", event.getReqId());
         }
     }
 }
@@ -1,24 +1,52 @@
 package com.stori.rule.service.impl;
 
 import com.alibaba.fastjson.JSON;
+import com.stori.rule.common.ContextSnapshot;
+import com.stori.rule.common.TenantContext;
 import com.stori.rule.dto.PackageSnapshot;
 import com.stori.rule.entity.*;
+import com.stori.rule.executor.FeatureDescriptor;
 import com.stori.rule.executor.FeatureExecutor;
 import com.stori.rule.executor.FeatureExecutorFactory;
 import com.stori.rule.mapper.*;
 import com.stori.rule.service.DroolsService;
+import com.stori.rule.service.PackageDependencyService;
+import com.stori.rule.service.execution.KieBaseDiskCache;
+import com.stori.rule.service.execution.TenantEngineCache;
+import com.stori.rule.service.metrics.ExecutionMetrics;
+import com.stori.rule.service.metrics.ExecutionMetrics.Stage;
+import com.stori.rule.service.metrics.ExecutionRollupAggregator;
+import com.stori.rule.service.metrics.NodeProfiler;
+import com.stori.rule.service.metrics.RuleNodes;
+import com.stori.rule.service.snapshot.RuntimeSnapshot;
+import com.stori.rule.service.snapshot.RuntimeSnapshotCodec;
+import com.stori.rule.service.record.FieldDictionary;
+import com.stori.rule.service.record.RecordingPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.kie.api.KieBase;
+import org.kie.api.definition.KiePackage;
+import org.kie.api.event.rule.AgendaEventListener;
 import org.kie.api.io.ResourceType;
 import org.kie.api.runtime.KieSession;
 import org.kie.internal.utils.KieHelper;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import lombok.Data;
 
 @Service
@@ -46,84 +74,206 @@ public class DroolsServiceImpl implements DroolsService {
     @Autowired
     private com.stori.rule.service.AsyncRecordService asyncRecordService;
 
-    // Cache KieBase by cache key (packageCode for draft, packageCode:verId for prod)
-    private final Map<String, KieBase> kieBaseCache = new ConcurrentHashMap<>();
+    @Autowired
+    private ExecutionRollupAggregator executionRollupAggregator;
+
+    @Autowired
+    private ExecutionMetrics executionMetrics;
+
+    @Autowired
+    private NodeProfiler nodeProfiler;
+
+    /** Run the features of one execution concurrently, each seeing only the caller's inputs */
+    @Value("${srule.execution.parallel-features:false}")
+    private boolean parallelFeatures;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PackageDependencyService packageDependencyService;
+
+    @Autowired
+    private KieBaseDiskCache kieBaseDiskCache;
+
+    /** Rules of cached KieBases each tenant may hold */
+    @Value("${srule.engine.cache.tenant-max-rules:20000}")
+    private long tenantMaxRules;
+
+    /** Rules of cached KieBases across tenants, the heaviest tenant evicts first beyond it */
+    @Value("${srule.engine.cache.max-rules:100000}")
+    private long maxRules;
+
+    /** Cached packages and package metadata each tenant may hold */
+    @Value("${srule.engine.cache.tenant-max-packages:2000}")
+    private long tenantMaxPackages;
+
+    // Engine caches are partitioned by tenant, keyed by packageCode:verId within a tenant
+    private TenantEngineCache<CompiledPackage> kieBaseCache;
     
     // Cache Package Metadata by cache key
-    private final Map<String, PackageMetadata> metadataCache = new ConcurrentHashMap<>();
+    private TenantEngineCache<PackageMetadata> metadataCache;
 
     // Cache RulePackage by packageCode
-    private final Map<String, RulePackage> packageCache = new ConcurrentHashMap<>();
+    private TenantEngineCache<RulePackage> packageCache;
+
+    // Feature calls block on SQL or RPC, a virtual thread each keeps them off the request's carrier
+    private final ExecutorService featureExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     @Data
     private static class PackageMetadata {
         private RulePackage rulePackage;
+        // Null for draft metadata
+        private Long versionId;
         private List<RuleVariable> variables;
         private Map<Long, Feature> featureMap;
+        // Pre-compiled features by feature id, built once per metadata load
+        private Map<Long, FeatureDescriptor> featureDescriptors;
+        private RecordingPolicy recordingPolicy;
+        // Variable codes of this package version, keys of binary execution records
+        private FieldDictionary fieldDictionary;
+        // DRL of a production version from loading its metadata until it is compiled
+        private volatile List<String> drls;
+    }
+
+    /**
+     * A KieBase with what its sessions share, cached and evicted together
+     */
+    private static final class CompiledPackage {
+        private final KieBase kieBase;
+        private final RuleNodes ruleNodes;
+        // Null when node firing metrics are off
+        private final AgendaEventListener firingListener;
+
+        private CompiledPackage(KieBase kieBase, RuleNodes ruleNodes, AgendaEventListener firingListener) {
+            this.kieBase = kieBase;
+            this.ruleNodes = ruleNodes;
+            this.firingListener = firingListener;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        kieBaseCache = new TenantEngineCache<>("kiebase", c -> ruleCount(c.kieBase), tenantMaxRules, maxRules, meterRegistry);
+        metadataCache = new TenantEngineCache<>("metadata", m -> 1, tenantMaxPackages, 0, meterRegistry);
+        packageCache = new TenantEngineCache<>("package", p -> 1, tenantMaxPackages, 0, meterRegistry);
     }
 
     @Override
     public Map<String, Object> execute(String packageCode, Map<String, Object> inputs) {
         // Production Execution: Use Active Version
-        RulePackage pkg = packageCache.computeIfAbsent(packageCode, k -> {
-            RulePackage p = rulePackageMapper.selectByCode(k);
-            if (p == null) throw new RuntimeException("Package not found: " + k);
+        long resolveStart = System.nanoTime();
+        String tenantId = TenantContext.getTenantId();
+        RulePackage pkg = activePackage(tenantId, packageCode);
+
+        String cacheKey = packageCode + ":" + pkg.getActiveVersionId();
+        
+        PackageMetadata metadata = metadataCache.get(tenantId, cacheKey, () -> loadProductionMetadata(pkg, pkg.getActiveVersionId()));
+        long lookupStart = System.nanoTime();
+        CompiledPackage compiled = kieBaseCache.get(tenantId, cacheKey, () -> loadProductionKieBase(metadata, pkg.getActiveVersionId()));
+        long lookupEnd = System.nanoTime();
+        executionMetrics.recordStage(Stage.METADATA_RESOLVE, packageCode, metadata.getVersionId(), lookupStart - resolveStart);
+        executionMetrics.recordStage(Stage.KIEBASE_LOOKUP, packageCode, metadata.getVersionId(), lookupEnd - lookupStart);
+        
+        return internalExecute(packageCode, inputs, metadata, compiled);
+    }
+
+    private RulePackage activePackage(String tenantId, String packageCode) {
+        RulePackage pkg = packageCache.get(tenantId, packageCode, () -> {
+            RulePackage p = rulePackageMapper.selectByCode(packageCode);
+            if (p == null) throw new RuntimeException("Package not found: " + packageCode);
             return p;
         });
-        
         if (pkg.getActiveVersionId() == null) {
             throw new RuntimeException("No active version for package: " + packageCode);
         }
+        return pkg;
+    }
 
+    @Override
+    public void compileActive(String packageCode) {
+        String tenantId = TenantContext.getTenantId();
+        RulePackage pkg = activePackage(tenantId, packageCode);
         String cacheKey = packageCode + ":" + pkg.getActiveVersionId();
-        
-        PackageMetadata metadata = metadataCache.computeIfAbsent(cacheKey, k -> loadProductionMetadata(pkg, pkg.getActiveVersionId()));
-        KieBase kieBase = kieBaseCache.computeIfAbsent(cacheKey, k -> loadProductionKieBase(metadata, pkg.getActiveVersionId()));
-        
-        return internalExecute(packageCode, inputs, metadata, kieBase);
+        PackageMetadata metadata = metadataCache.get(tenantId, cacheKey, () -> loadProductionMetadata(pkg, pkg.getActiveVersionId()));
+        kieBaseCache.get(tenantId, cacheKey, () -> loadProductionKieBase(metadata, pkg.getActiveVersionId()));
+    }
+
+    @Override
+    public Map<String, String> warmUp(String packageCode) {
+        List<String> codes = new ArrayList<>();
+        codes.add(packageCode);
+        codes.addAll(packageDependencyService.transitiveDependencies(packageCode));
+
+        // Compilation is CPU-bound, but packages are few and loading their metadata waits on SQL
+        ContextSnapshot context = ContextSnapshot.capture();
+        Map<String, Future<?>> compilations = new LinkedHashMap<>();
+        for (String code : codes) {
+            compilations.put(code, featureExecutor.submit(context.wrap(() -> {
+                compileActive(code);
+                return null;
+            })));
+        }
+
+        Map<String, String> outcomes = new LinkedHashMap<>();
+        for (Map.Entry<String, Future<?>> compilation : compilations.entrySet()) {
+            try {
+                compilation.getValue().get();
+                outcomes.put(compilation.getKey(), "OK");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while warming up package: " + packageCode);
+            } catch (ExecutionException e) {
+                log.warn("Failed to warm up package {}: {}", compilation.getKey(), e.getCause().getMessage());
+                outcomes.put(compilation.getKey(), String.valueOf(e.getCause().getMessage()));
+            }
+        }
+        log.info("Warmed up package {} with dependencies: {}", packageCode, outcomes);
+        return outcomes;
     }
 
     @Override
     public Map<String, Object> executeDraft(String packageCode, Map<String, Object> inputs) {
         // Draft Execution: Use Current DB State (Draft)
 
+        long resolveStart = System.nanoTime();
         PackageMetadata metadata = loadDraftMetadata(packageCode);
-        KieBase kieBase = loadDraftKieBase(packageCode);
+        long lookupStart = System.nanoTime();
+        CompiledPackage compiled = loadDraftKieBase(packageCode);
+        long lookupEnd = System.nanoTime();
+        executionMetrics.recordStage(Stage.METADATA_RESOLVE, packageCode, null, lookupStart - resolveStart);
+        executionMetrics.recordStage(Stage.KIEBASE_LOOKUP, packageCode, null, lookupEnd - lookupStart);
         
-        return internalExecute(packageCode, inputs, metadata, kieBase);
+        return internalExecute(packageCode, inputs, metadata, compiled);
     }
 
-    private Map<String, Object> internalExecute(String packageCode, Map<String, Object> inputs, PackageMetadata metadata, KieBase kieBase) {
+    private Map<String, Object> internalExecute(String packageCode, Map<String, Object> inputs, PackageMetadata metadata, CompiledPackage compiled) {
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
         String reqId = java.util.UUID.randomUUID().toString();
+        // Nested RULE_PACKAGE executions log under their own id and hand the caller's back
+        String parentReqId = MDC.get(ContextSnapshot.REQ_ID);
+        MDC.put(ContextSnapshot.REQ_ID, reqId);
         String status = "SUCCESS";
         String errorMsg = null;
 
+        // Sampling is decided once so feature and rule records of a request stay together
+        RecordingPolicy policy = metadata.getRecordingPolicy();
+        boolean sampled = policy.sample();
+        // Inputs are enriched in place, keep the caller's view for any record that may be written
+        Map<String, Object> inputSnapshot = sampled || policy.isAlwaysRecordFailures() ? new HashMap<>(inputs) : null;
+        Long versionId = metadata.getVersionId();
+
         try {
             // 1. Enrich inputs with Features
-            if (metadata.getVariables() != null) {
-                for (RuleVariable var : metadata.getVariables()) {
-                    if (var.getFeatureId() != null) {
-                        Feature feature = metadata.getFeatureMap().get(var.getFeatureId());
-                        if (feature != null) {
-                            FeatureExecutor executor = featureExecutorFactory.getExecutor(feature.getType());
-                            if (executor != null) {
-                                long featureStartTime = System.currentTimeMillis();
-                                Object value = executor.execute(feature, inputs);
-                                long featureEndTime = System.currentTimeMillis();
-                                
-                                // Record feature execution
-                                asyncRecordService.recordFeature(reqId, feature.getId(), feature.getName(), value, featureEndTime - featureStartTime);
-                                
-                                inputs.put(var.getCode(), value);
-                            }
-                        }
-                    }
-                }
-            }
+            enrichInputs(packageCode, inputs, metadata, reqId, sampled);
 
             // 2. Execute Rules
-            KieSession kieSession = kieBase.newKieSession();
+            long sessionStart = System.nanoTime();
+            KieSession kieSession = compiled.kieBase.newKieSession();
+            if (compiled.firingListener != null) {
+                kieSession.addEventListener(compiled.firingListener);
+            }
             
             // Insert inputs
             for (Map.Entry<String, Object> entry : inputs.entrySet()) {
@@ -132,7 +282,14 @@ public class DroolsServiceImpl implements DroolsService {
             // Also insert the map itself if rules need to access it directly
             kieSession.insert(inputs);
             
+            if (nodeProfiler.isProfiling(packageCode)) {
+                kieSession.addEventListener(nodeProfiler.listener(compiled.ruleNodes, packageCode, versionId));
+            }
+            
+            long fireStart = System.nanoTime();
+            executionMetrics.recordStage(Stage.SESSION_CREATE, packageCode, versionId, fireStart - sessionStart);
             kieSession.fireAllRules();
+            executionMetrics.recordStage(Stage.FIRE_RULES, packageCode, versionId, System.nanoTime() - fireStart);
             kieSession.dispose();
             
             return inputs;
@@ -141,8 +298,89 @@ public class DroolsServiceImpl implements DroolsService {
             errorMsg = e.getMessage();
             throw e;
         } finally {
+            executionRollupAggregator.record(TenantContext.getTenantId(), packageCode, versionId,
+                    System.nanoTime() - startNanos, "SUCCESS".equals(status));
             long endTime = System.currentTimeMillis();
-            asyncRecordService.recordRuleExecution(reqId, packageCode, inputs, inputs, endTime - startTime, status, errorMsg);
+            long enqueueStart = System.nanoTime();
+            if (sampled) {
+                asyncRecordService.recordRuleExecution(reqId, packageCode, inputSnapshot, inputs, endTime - startTime, status, errorMsg, policy, metadata.getFieldDictionary());
+                executionMetrics.recordStage(Stage.RECORD_ENQUEUE, packageCode, versionId, System.nanoTime() - enqueueStart);
+            } else if ("FAIL".equals(status) && policy.isAlwaysRecordFailures()) {
+                asyncRecordService.recordRuleExecution(reqId, packageCode, inputSnapshot, null, endTime - startTime, status, errorMsg, policy, metadata.getFieldDictionary());
+                executionMetrics.recordStage(Stage.RECORD_ENQUEUE, packageCode, versionId, System.nanoTime() - enqueueStart);
+            }
+            if (parentReqId != null) {
+                MDC.put(ContextSnapshot.REQ_ID, parentReqId);
+            } else {
+                MDC.remove(ContextSnapshot.REQ_ID);
+            }
+        }
+    }
+
+    private void enrichInputs(String packageCode, Map<String, Object> inputs, PackageMetadata metadata, String reqId, boolean sampled) {
+        if (metadata.getVariables() == null) return;
+        List<RuleVariable> featureVariables = new ArrayList<>();
+        for (RuleVariable var : metadata.getVariables()) {
+            if (var.getFeatureId() != null && metadata.getFeatureDescriptors().containsKey(var.getFeatureId())) {
+                featureVariables.add(var);
+            }
+        }
+        if (!parallelFeatures || featureVariables.size() < 2) {
+            for (RuleVariable var : featureVariables) {
+                FeatureDescriptor descriptor = metadata.getFeatureDescriptors().get(var.getFeatureId());
+                long featureStartNanos = System.nanoTime();
+                Object value = descriptor.execute(inputs);
+                onFeatureResult(packageCode, inputs, metadata, reqId, sampled, var, value, System.nanoTime() - featureStartNanos);
+            }
+            return;
+        }
+
+        // Features share a copy of the caller's inputs, results are applied in variable order as they complete
+        Map<String, Object> callerInputs = new HashMap<>(inputs);
+        ContextSnapshot context = ContextSnapshot.capture();
+        List<Future<Object[]>> results = new ArrayList<>(featureVariables.size());
+        for (RuleVariable var : featureVariables) {
+            FeatureDescriptor descriptor = metadata.getFeatureDescriptors().get(var.getFeatureId());
+            results.add(featureExecutor.submit(context.wrap(() -> {
+                long featureStartNanos = System.nanoTime();
+                Object value = descriptor.execute(callerInputs);
+                return new Object[]{value, System.nanoTime() - featureStartNanos};
+            })));
+        }
+        for (int i = 0; i < featureVariables.size(); i++) {
+            Object[] result = await(results.get(i), results);
+            onFeatureResult(packageCode, inputs, metadata, reqId, sampled, featureVariables.get(i), result[0], (Long) result[1]);
+        }
+    }
+
+    private void onFeatureResult(String packageCode, Map<String, Object> inputs, PackageMetadata metadata, String reqId,
+                                 boolean sampled, RuleVariable var, Object value, long featureNanos) {
+        Feature feature = metadata.getFeatureDescriptors().get(var.getFeatureId()).getFeature();
+        Long versionId = metadata.getVersionId();
+        RecordingPolicy policy = metadata.getRecordingPolicy();
+        executionMetrics.recordStage(Stage.FEATURE, packageCode, versionId, feature.getType(), featureNanos);
+
+        // Record feature execution
+        if (sampled && policy.isRecordFeatures() && policy.isFieldRecorded(var.getCode())) {
+            long enqueueStart = System.nanoTime();
+            asyncRecordService.recordFeature(reqId, feature.getId(), feature.getName(), value, TimeUnit.NANOSECONDS.toMillis(featureNanos), policy);
+            executionMetrics.recordStage(Stage.RECORD_ENQUEUE, packageCode, versionId, System.nanoTime() - enqueueStart);
+        }
+
+        inputs.put(var.getCode(), value);
+    }
+
+    private static <T> T await(Future<T> future, List<? extends Future<?>> siblings) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            siblings.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while executing features");
+        } catch (ExecutionException e) {
+            siblings.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new RuntimeException(e.getCause());
         }
     }
 
@@ -150,12 +388,13 @@ public class DroolsServiceImpl implements DroolsService {
     public void reloadRules(String packageCode) {
         log.info("Reloading rules and metadata for package: {}", packageCode);
         // Clear caches for Draft
+        String tenantId = TenantContext.getTenantId();
         String draftKey = packageCode + ":DRAFT";
-        kieBaseCache.remove(draftKey);
-        metadataCache.remove(draftKey);
+        kieBaseCache.remove(tenantId, draftKey);
+        metadataCache.remove(tenantId, draftKey);
         
         // Clear package cache to ensure latest active version is picked up
-        packageCache.remove(packageCode);
+        packageCache.remove(tenantId, packageCode);
         
         // Note: Production versions are immutable so we don't strictly need to clear them unless we want to free memory,
         // but explicit reload usually targets Draft development cycle.
@@ -184,10 +423,13 @@ public class DroolsServiceImpl implements DroolsService {
         metadata.setRulePackage(pkg);
         metadata.setVariables(variables);
         metadata.setFeatureMap(featureMap);
+        metadata.setFeatureDescriptors(compileFeatures(featureMap));
+        metadata.setRecordingPolicy(RecordingPolicy.parse(pkg.getExtensionData()));
+        metadata.setFieldDictionary(buildFieldDictionary(variables));
         return metadata;
     }
 
-    private KieBase loadDraftKieBase(String packageCode) {
+    private CompiledPackage loadDraftKieBase(String packageCode) {
         log.info("Building draft KieBase for package: {}", packageCode);
         RulePackage pkg = rulePackageMapper.selectByCode(packageCode);
         if (pkg == null) {
@@ -203,48 +445,100 @@ public class DroolsServiceImpl implements DroolsService {
             }
         }
         
-        return kieHelper.build();
+        long compileStart = System.nanoTime();
+        KieBase kieBase = kieHelper.build();
+        executionMetrics.recordCompile(packageCode, null, System.nanoTime() - compileStart);
+        return compiled(kieBase, packageCode, null);
     }
     
     // --- Production Loaders ---
     
     private PackageMetadata loadProductionMetadata(RulePackage pkg, Long versionId) {
         log.info("Loading production metadata for package: {}, version: {}", pkg.getCode(), versionId);
-        RulePackageVersion version = rulePackageVersionMapper.selectById(versionId);
-        if (version == null) throw new RuntimeException("Version not found: " + versionId);
-        
-        PackageSnapshot snapshot = JSON.parseObject(version.getSnapshotData(), PackageSnapshot.class);
-        if (snapshot == null) throw new RuntimeException("Invalid snapshot data for version: " + versionId);
+        RuntimeSnapshot snapshot = loadRuntimeSnapshot(versionId);
         
         PackageMetadata metadata = new PackageMetadata();
         metadata.setRulePackage(pkg);
+        metadata.setVersionId(versionId);
         metadata.setVariables(snapshot.getVariables());
         metadata.setFeatureMap(snapshot.getFeatureMap());
+        metadata.setFeatureDescriptors(compileFeatures(snapshot.getFeatureMap()));
+        metadata.setRecordingPolicy(RecordingPolicy.parse(pkg.getExtensionData()));
+        metadata.setFieldDictionary(buildFieldDictionary(snapshot.getVariables()));
+        // Handed to loadProductionKieBase so the snapshot is read once per version
+        metadata.setDrls(snapshot.getDrls());
         
         return metadata;
     }
-    
-    private KieBase loadProductionKieBase(PackageMetadata metadata, Long versionId) {
-        log.info("Building production KieBase for package: {}, version: {}", metadata.getRulePackage().getCode(), versionId);
-        // We need to fetch snapshot again or store it in metadata? 
-        // Ideally we should pass snapshot or access it. 
-        // For simplicity, let's reload version (cached by DB usually fast enough) or assume metadata has what we need?
-        // PackageMetadata doesn't have rules. 
-        // Optimization: loadProductionMetadata could return a wrapper with snapshot.
-        // Or we just fetch version again here.
-        
-        RulePackageVersion version = rulePackageVersionMapper.selectById(versionId);
-        PackageSnapshot snapshot = JSON.parseObject(version.getSnapshotData(), PackageSnapshot.class);
-        
-        KieHelper kieHelper = new KieHelper();
-        if (snapshot.getRuleDefinitions() != null) {
-            for (RuleDefinition rule : snapshot.getRuleDefinitions()) {
-                if (rule.getDrlContent() != null && !rule.getDrlContent().isEmpty()) {
-                    kieHelper.addContent(rule.getDrlContent(), ResourceType.DRL);
+
+    /**
+     * Runtime section of a version, from the full snapshot for versions created before it existed
+     */
+    private RuntimeSnapshot loadRuntimeSnapshot(Long versionId) {
+        // Only the runtime column, the authoring snapshot is read for older versions alone
+        RulePackageVersion version = rulePackageVersionMapper.selectRuntimeData(versionId);
+        if (version == null) throw new RuntimeException("Version not found: " + versionId);
+        if (version.getRuntimeData() != null) {
+            return RuntimeSnapshotCodec.decode(version.getRuntimeData());
+        }
+        PackageSnapshot snapshot = JSON.parseObject(rulePackageVersionMapper.selectSnapshotData(versionId), PackageSnapshot.class);
+        if (snapshot == null) throw new RuntimeException("Invalid snapshot data for version: " + versionId);
+        return RuntimeSnapshot.of(snapshot);
+    }
+
+    /**
+     * Compile features into descriptors so executors never parse config on the execution path
+     */
+    private Map<Long, FeatureDescriptor> compileFeatures(Map<Long, Feature> featureMap) {
+        Map<Long, FeatureDescriptor> descriptors = new HashMap<>();
+        if (featureMap != null) {
+            for (Map.Entry<Long, Feature> entry : featureMap.entrySet()) {
+                Feature feature = entry.getValue();
+                FeatureExecutor executor = featureExecutorFactory.getExecutor(feature.getType());
+                if (executor != null) {
+                    descriptors.put(entry.getKey(), executor.compile(feature));
                 }
             }
         }
+        return Collections.unmodifiableMap(descriptors);
+    }
+    
+    private FieldDictionary buildFieldDictionary(List<RuleVariable> variables) {
+        List<String> codes = new java.util.ArrayList<>();
+        if (variables != null) {
+            for (RuleVariable var : variables) {
+                codes.add(var.getCode());
+            }
+        }
+        return new FieldDictionary(codes);
+    }
+
+    private static long ruleCount(KieBase kieBase) {
+        long rules = 0;
+        for (KiePackage kiePackage : kieBase.getKiePackages()) {
+            rules += kiePackage.getRules().size();
+        }
+        return rules;
+    }
+
+    private CompiledPackage loadProductionKieBase(PackageMetadata metadata, Long versionId) {
+        log.info("Building production KieBase for package: {}, version: {}", metadata.getRulePackage().getCode(), versionId);
+        // The DRL comes with freshly loaded metadata; a KieBase evicted later reads the snapshot again
+        List<String> drls = metadata.getDrls();
+        if (drls == null) {
+            drls = loadRuntimeSnapshot(versionId).getDrls();
+        }
         
-        return kieHelper.build();
+        // Versions are immutable, so a KieBase compiled before a restart is loaded from disk instead
+        long compileStart = System.nanoTime();
+        KieBase kieBase = kieBaseDiskCache.getOrCompile(metadata.getRulePackage().getCode(), versionId, drls);
+        metadata.setDrls(null);
+        executionMetrics.recordCompile(metadata.getRulePackage().getCode(), versionId, System.nanoTime() - compileStart);
+        return compiled(kieBase, metadata.getRulePackage().getCode(), versionId);
+    }
+
+    private CompiledPackage compiled(KieBase kieBase, String packageCode, Long versionId) {
+        RuleNodes ruleNodes = RuleNodes.of(kieBase);
+        return new CompiledPackage(kieBase, ruleNodes, executionMetrics.nodeFiringListener(ruleNodes, packageCode, versionId));
     }
 }
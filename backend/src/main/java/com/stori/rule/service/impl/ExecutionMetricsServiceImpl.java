@@ -0,0 +1,97 @@
+package com.stori.rule.service.impl;
+
+import com.stori.rule.dto.PackageProfile;
+import com.stori.rule.dto.RollupPoint;
+import com.stori.rule.entity.RuleExecutionRollup;
+import com.stori.rule.mapper.RuleExecutionRollupMapper;
+import com.stori.rule.service.ExecutionMetricsService;
+import com.stori.rule.service.metrics.LatencyHistogram;
+import com.stori.rule.service.metrics.NodeProfiler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+public class ExecutionMetricsServiceImpl implements ExecutionMetricsService {
+
+    private static final double MICROS_PER_MS = 1000.0;
+
+    @Autowired
+    private RuleExecutionRollupMapper ruleExecutionRollupMapper;
+
+    @Autowired
+    private NodeProfiler nodeProfiler;
+
+    private static class Interval {
+        private long execCount;
+        private long failCount;
+        private long totalTimeUs;
+        private long maxTimeUs;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+    }
+
+    @Override
+    public List<RollupPoint> queryRollups(String packageCode, Long versionId, LocalDateTime startTime, LocalDateTime endTime, int intervalMinutes) {
+        LocalDateTime start = startTime.truncatedTo(ChronoUnit.MINUTES);
+        long width = Math.max(1, intervalMinutes);
+
+        // Rows of all nodes and minutes in an interval are merged, histograms make percentiles exact to a bucket
+        Map<LocalDateTime, Interval> intervals = new TreeMap<>();
+        for (RuleExecutionRollup rollup : ruleExecutionRollupMapper.selectRange(packageCode, versionId, start, endTime)) {
+            long offset = Duration.between(start, rollup.getBucketMinute()).toMinutes() / width * width;
+            Interval interval = intervals.computeIfAbsent(start.plusMinutes(offset), k -> new Interval());
+            interval.execCount += nullToZero(rollup.getExecCount());
+            interval.failCount += nullToZero(rollup.getFailCount());
+            interval.totalTimeUs += nullToZero(rollup.getTotalTimeUs());
+            interval.maxTimeUs = Math.max(interval.maxTimeUs, nullToZero(rollup.getMaxTimeUs()));
+            interval.histogram.merge(LatencyHistogram.decode(rollup.getHistogram()));
+        }
+
+        List<RollupPoint> points = new ArrayList<>();
+        for (Map.Entry<LocalDateTime, Interval> entry : intervals.entrySet()) {
+            Interval interval = entry.getValue();
+            RollupPoint point = new RollupPoint();
+            point.setTime(entry.getKey());
+            point.setExecCount(interval.execCount);
+            point.setFailCount(interval.failCount);
+            point.setAvgTimeMs(interval.execCount == 0 ? 0 : interval.totalTimeUs / MICROS_PER_MS / interval.execCount);
+            point.setP50TimeMs(interval.histogram.valueAt(0.50) / MICROS_PER_MS);
+            point.setP95TimeMs(interval.histogram.valueAt(0.95) / MICROS_PER_MS);
+            point.setP99TimeMs(interval.histogram.valueAt(0.99) / MICROS_PER_MS);
+            point.setMaxTimeMs(interval.maxTimeUs / MICROS_PER_MS);
+            points.add(point);
+        }
+        return points;
+    }
+
+    private static long nullToZero(Long value) {
+        return value == null ? 0 : value;
+    }
+
+    @Override
+    public PackageProfile getNodeProfile(String packageCode, Long versionId) {
+        PackageProfile profile = new PackageProfile();
+        profile.setPackageCode(packageCode);
+        profile.setVersionId(versionId);
+        profile.setEnabled(nodeProfiler.isProfiling(packageCode));
+        profile.setNodes(nodeProfiler.profile(packageCode, versionId));
+        return profile;
+    }
+
+    @Override
+    public void setProfiling(String packageCode, boolean enabled) {
+        nodeProfiler.setProfiling(packageCode, enabled);
+    }
+
+    @Override
+    public void resetNodeProfile(String packageCode) {
+        nodeProfiler.reset(packageCode);
+    }
+}
@@ -1,16 +1,59 @@
 package com.stori.rule.service.impl;
 
+import com.alibaba.fastjson.JSON;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.stori.rule.dto.CursorPage;
 import com.stori.rule.entity.FeatureRecord;
 import com.stori.rule.mapper.FeatureRecordMapper;
 import com.stori.rule.service.FeatureRecordService;
+import com.stori.rule.service.record.RecordCodec;
+import com.stori.rule.service.record.RecordCursor;
+import com.stori.rule.service.record.RecordTableManager;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Service
 public class FeatureRecordServiceImpl extends ServiceImpl<FeatureRecordMapper, FeatureRecord> implements FeatureRecordService {
+
+    @Autowired
+    private RecordTableManager recordTableManager;
+
+    @Override
+    public Page<FeatureRecord> page(Page<FeatureRecord> page, String reqId, String featureName, LocalDateTime startTime, LocalDateTime endTime) {
+        List<String> tables = recordTableManager.tablesFor(RecordTableManager.FEATURE_TABLE, startTime, endTime);
+        String filter = reqId + "|" + featureName + "|" + startTime + "|" + endTime;
+        Page<FeatureRecord> result = recordTableManager.page(tables, page.getCurrent(), page.getSize(), filter,
+                table -> baseMapper.countByCondition(table, reqId, featureName, startTime, endTime),
+                (table, offset, limit) -> baseMapper.selectByCondition(table, reqId, featureName, startTime, endTime, offset, limit));
+        result.getRecords().forEach(this::decode);
+        return result;
+    }
+
     @Override
-    public Page<FeatureRecord> page(Page<FeatureRecord> page, String reqId, String featureName) {
-        return baseMapper.selectPageByCondition(page, reqId, featureName);
+    public CursorPage<FeatureRecord> cursor(String cursor, int limit, String reqId, String featureName, LocalDateTime startTime, LocalDateTime endTime) {
+        RecordCursor after = RecordCursor.decode(cursor);
+        LocalDateTime cursorTime = after == null ? null : after.getCreatedAt();
+        Long cursorId = after == null ? null : after.getId();
+        // Tables newer than the cursor cannot hold the next page
+        LocalDateTime upper = cursorTime != null && (endTime == null || cursorTime.isBefore(endTime)) ? cursorTime : endTime;
+        List<String> tables = recordTableManager.tablesFor(RecordTableManager.FEATURE_TABLE, startTime, upper);
+        List<FeatureRecord> rows = recordTableManager.scan(tables, limit + 1,
+                (table, n) -> baseMapper.selectByCursor(table, reqId, featureName, startTime, endTime, cursorTime, cursorId, n));
+        CursorPage<FeatureRecord> result = CursorPage.of(rows, limit, r -> new RecordCursor(r.getCreatedAt(), r.getId()).encode());
+        result.getRecords().forEach(this::decode);
+        return result;
+    }
+
+    /**
+     * Expose binary values as JSON text so callers never see the storage format
+     */
+    private void decode(FeatureRecord record) {
+        if (record.getFeatureValueBin() != null) {
+            record.setFeatureValue(JSON.toJSONString(RecordCodec.decodeValue(record.getFeatureValueBin())));
+        }
     }
 }
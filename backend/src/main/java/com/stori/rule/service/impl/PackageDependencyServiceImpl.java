@@ -0,0 +1,175 @@
+package com.stori.rule.service.impl;
+
+import com.alibaba.fastjson.JSON;
+import com.stori.rule.dto.GraphDto;
+import com.stori.rule.dto.NodeDto;
+import com.stori.rule.entity.RulePackage;
+import com.stori.rule.entity.RulePackageDependency;
+import com.stori.rule.entity.RulePackageVersion;
+import com.stori.rule.mapper.RulePackageDependencyMapper;
+import com.stori.rule.mapper.RulePackageMapper;
+import com.stori.rule.mapper.RulePackageVersionMapper;
+import com.stori.rule.service.PackageDependencyService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Slf4j
+@Service
+public class PackageDependencyServiceImpl implements PackageDependencyService {
+
+    @Autowired
+    private RulePackageDependencyMapper dependencyMapper;
+
+    @Autowired
+    private RulePackageMapper rulePackageMapper;
+
+    @Autowired
+    private RulePackageVersionMapper versionMapper;
+
+    @Override
+    public Set<String> extractDependencies(GraphDto graph) {
+        Set<String> codes = new LinkedHashSet<>();
+        if (graph == null || graph.getNodes() == null) return codes;
+        for (NodeDto node : graph.getNodes()) {
+            if (!"RULE_PACKAGE".equalsIgnoreCase(node.getType()) || node.getData() == null) continue;
+            Object packageCode = node.getData().get("packageCode");
+            if (packageCode instanceof String && !((String) packageCode).isEmpty()) {
+                codes.add((String) packageCode);
+            }
+        }
+        return codes;
+    }
+
+    @Override
+    public void saveDependencies(RulePackage rulePackage, Long versionId, String contentJson) {
+        Set<String> codes = parseDependencies(contentJson);
+        insert(rulePackage.getId(), rulePackage.getCode(), versionId, codes);
+        log.debug("Package {} version {} depends on {}", rulePackage.getCode(), versionId, codes);
+    }
+
+    @Override
+    public void checkCycles(String packageCode, Long versionId) {
+        Map<String, List<String>> edges = new HashMap<>();
+        // The version under check stands in for whatever is active for the package
+        edges.put(packageCode, versionDependencies(versionId));
+        Deque<String> path = new ArrayDeque<>();
+        Set<String> done = new HashSet<>();
+        List<String> cycle = findCycle(packageCode, edges, path, new HashSet<>(), done);
+        if (cycle != null) {
+            throw new RuntimeException("Circular package dependency: " + String.join(" -> ", cycle));
+        }
+    }
+
+    /**
+     * Depth-first search keeping the current path, returns the first cycle found
+     */
+    private List<String> findCycle(String code, Map<String, List<String>> edges, Deque<String> path,
+                                   Set<String> onPath, Set<String> done) {
+        if (onPath.contains(code)) {
+            List<String> cycle = new ArrayList<>();
+            boolean inCycle = false;
+            for (String step : path) {
+                inCycle |= step.equals(code);
+                if (inCycle) cycle.add(step);
+            }
+            cycle.add(code);
+            return cycle;
+        }
+        if (!done.add(code)) return null;
+        path.addLast(code);
+        onPath.add(code);
+        for (String next : dependenciesOf(code, edges)) {
+            List<String> cycle = findCycle(next, edges, path, onPath, done);
+            if (cycle != null) return cycle;
+        }
+        onPath.remove(code);
+        path.removeLast();
+        return null;
+    }
+
+    @Override
+    public List<String> transitiveDependencies(String packageCode) {
+        Map<String, List<String>> edges = new HashMap<>();
+        Set<String> seen = new LinkedHashSet<>();
+        Deque<String> queue = new ArrayDeque<>(dependenciesOf(packageCode, edges));
+        while (!queue.isEmpty()) {
+            String code = queue.poll();
+            if (code.equals(packageCode) || !seen.add(code)) continue;
+            queue.addAll(dependenciesOf(code, edges));
+        }
+        return new ArrayList<>(seen);
+    }
+
+    /**
+     * What the active version of a package embeds, nothing when it has no active version
+     */
+    private List<String> dependenciesOf(String code, Map<String, List<String>> edges) {
+        List<String> codes = edges.get(code);
+        if (codes == null) {
+            RulePackage pkg = rulePackageMapper.selectByCode(code);
+            codes = pkg == null || pkg.getActiveVersionId() == null
+                    ? Collections.emptyList() : versionDependencies(pkg.getActiveVersionId());
+            edges.put(code, codes);
+        }
+        return codes;
+    }
+
+    private List<String> versionDependencies(Long versionId) {
+        if (versionId == null) return Collections.emptyList();
+        List<RulePackageDependency> dependencies = dependencyMapper.selectByVersionId(versionId);
+        if (dependencies.isEmpty()) {
+            return backfill(versionId);
+        }
+        Set<String> codes = new LinkedHashSet<>();
+        for (RulePackageDependency dependency : dependencies) {
+            codes.add(dependency.getDependsOnCode());
+        }
+        return new ArrayList<>(codes);
+    }
+
+    /**
+     * Versions created before dependencies were recorded per version have no rows, their graph is
+     * read once and recorded. Versions without dependencies are read again each time, which only
+     * happens on publish, activation and warm-up.
+     */
+    private List<String> backfill(Long versionId) {
+        RulePackageVersion version = versionMapper.selectById(versionId);
+        if (version == null) return Collections.emptyList();
+        Set<String> codes = parseDependencies(version.getContentJson());
+        if (!codes.isEmpty()) {
+            RulePackage pkg = rulePackageMapper.selectById(version.getPackageId());
+            if (pkg != null) {
+                insert(pkg.getId(), pkg.getCode(), versionId, codes);
+            }
+        }
+        return new ArrayList<>(codes);
+    }
+
+    private Set<String> parseDependencies(String contentJson) {
+        if (contentJson == null || contentJson.isEmpty()) return Collections.emptySet();
+        return extractDependencies(JSON.parseObject(contentJson, GraphDto.class));
+    }
+
+    private void insert(Long packageId, String packageCode, Long versionId, Set<String> codes) {
+        for (String code : codes) {
+            RulePackageDependency dependency = new RulePackageDependency();
+            dependency.setPackageId(packageId);
+            dependency.setPackageCode(packageCode);
+            dependency.setVersionId(versionId);
+            dependency.setDependsOnCode(code);
+            dependencyMapper.insert(dependency);
+        }
+    }
+}
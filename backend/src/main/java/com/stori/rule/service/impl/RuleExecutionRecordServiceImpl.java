@@ -1,16 +1,85 @@
 package com.stori.rule.service.impl;
 
+import com.alibaba.fastjson.JSON;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.stori.rule.dto.CursorPage;
 import com.stori.rule.entity.RuleExecutionRecord;
 import com.stori.rule.mapper.RuleExecutionRecordMapper;
 import com.stori.rule.service.RuleExecutionRecordService;
+import com.stori.rule.service.record.FieldDictionary;
+import com.stori.rule.service.record.RecordCodec;
+import com.stori.rule.service.record.RecordCursor;
+import com.stori.rule.service.record.RecordSchemaRegistry;
+import com.stori.rule.service.record.RecordTableManager;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Service
 public class RuleExecutionRecordServiceImpl extends ServiceImpl<RuleExecutionRecordMapper, RuleExecutionRecord> implements RuleExecutionRecordService {
+
+    @Autowired
+    private RecordSchemaRegistry recordSchemaRegistry;
+
+    @Autowired
+    private RecordTableManager recordTableManager;
+
+    @Override
+    public Page<RuleExecutionRecord> page(Page<RuleExecutionRecord> page, String reqId, String packageCode, String status,
+                                          LocalDateTime startTime, LocalDateTime endTime) {
+        List<String> tables = recordTableManager.tablesFor(RecordTableManager.RULE_TABLE, startTime, endTime);
+        String filter = reqId + "|" + packageCode + "|" + status + "|" + startTime + "|" + endTime;
+        Page<RuleExecutionRecord> result = recordTableManager.page(tables, page.getCurrent(), page.getSize(), filter,
+                table -> baseMapper.countByCondition(table, reqId, packageCode, status, startTime, endTime),
+                (table, offset, limit) -> baseMapper.selectByCondition(table, reqId, packageCode, status, startTime, endTime, offset, limit));
+        result.getRecords().forEach(this::decode);
+        return result;
+    }
+
+    @Override
+    public CursorPage<RuleExecutionRecord> cursor(String cursor, int limit, String reqId, String packageCode, String status,
+                                                  LocalDateTime startTime, LocalDateTime endTime) {
+        RecordCursor after = RecordCursor.decode(cursor);
+        LocalDateTime cursorTime = after == null ? null : after.getCreatedAt();
+        Long cursorId = after == null ? null : after.getId();
+        // Tables newer than the cursor cannot hold the next page
+        LocalDateTime upper = cursorTime != null && (endTime == null || cursorTime.isBefore(endTime)) ? cursorTime : endTime;
+        List<String> tables = recordTableManager.tablesFor(RecordTableManager.RULE_TABLE, startTime, upper);
+        List<RuleExecutionRecord> rows = recordTableManager.scan(tables, limit + 1,
+                (table, n) -> baseMapper.selectByCursor(table, reqId, packageCode, status, startTime, endTime, cursorTime, cursorId, n));
+        CursorPage<RuleExecutionRecord> result = CursorPage.of(rows, limit, r -> new RecordCursor(r.getCreatedAt(), r.getId()).encode());
+        result.getRecords().forEach(this::decode);
+        return result;
+    }
+
     @Override
-    public Page<RuleExecutionRecord> page(Page<RuleExecutionRecord> page, String reqId, String packageCode, String status) {
-        return baseMapper.selectPageByCondition(page, reqId, packageCode, status);
+    public RuleExecutionRecord getById(Serializable id) {
+        Long recordId = Long.valueOf(id.toString());
+        for (String table : recordTableManager.tablesForId(RecordTableManager.RULE_TABLE, recordId)) {
+            RuleExecutionRecord record = baseMapper.selectByIdFromTable(table, recordId);
+            if (record != null) {
+                decode(record);
+                return record;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Expose binary payloads as JSON text so callers never see the storage format
+     */
+    private void decode(RuleExecutionRecord record) {
+        if (record == null || (record.getInputParamsBin() == null && record.getOutputResultBin() == null)) return;
+        FieldDictionary dictionary = recordSchemaRegistry.get(record.getSchemaHash());
+        if (record.getInputParamsBin() != null) {
+            record.setInputParams(JSON.toJSONString(RecordCodec.decodeMap(record.getInputParamsBin(), dictionary)));
+        }
+        if (record.getOutputResultBin() != null) {
+            record.setOutputResult(JSON.toJSONString(RecordCodec.decodeMap(record.getOutputResultBin(), dictionary)));
+        }
     }
 }
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.stori.rule.entity.RulePackage;
 import com.stori.rule.mapper.RulePackageMapper;
 import com.stori.rule.service.DroolsService;
+import com.stori.rule.service.PackageDependencyService;
 import com.stori.rule.service.RulePackageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -15,10 +16,18 @@ public class RulePackageServiceImpl extends ServiceImpl<RulePackageMapper, RuleP
 
     @Autowired
     private DroolsService droolsService;
+
+    @Autowired
+    private PackageDependencyService packageDependencyService;
+
     @Override
     public void publish(Long id) {
         RulePackage pkg = this.getById(id);
         if (pkg == null) throw new RuntimeException("Package not found");
+        // An embedded package calling back into this one would recurse until the stack overflows
+        if (pkg.getActiveVersionId() != null) {
+            packageDependencyService.checkCycles(pkg.getCode(), pkg.getActiveVersionId());
+        }
         
         pkg.setStatus("PUBLISHED");
         this.updateById(pkg);
@@ -6,16 +6,24 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.stori.rule.dto.PackageSnapshot;
 import com.stori.rule.entity.*;
 import com.stori.rule.mapper.*;
+import com.stori.rule.service.DroolsService;
+import com.stori.rule.service.PackageDependencyService;
 import com.stori.rule.service.RulePackageVersionService;
+import com.stori.rule.service.snapshot.RuntimeSnapshot;
+import com.stori.rule.service.snapshot.RuntimeSnapshotCodec;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+@Slf4j
 @Service
 public class RulePackageVersionServiceImpl extends ServiceImpl<RulePackageVersionMapper, RulePackageVersion> implements RulePackageVersionService {
 
@@ -31,6 +39,12 @@ public class RulePackageVersionServiceImpl extends ServiceImpl<RulePackageVersio
     @Autowired
     private RulePackageMapper rulePackageMapper;
 
+    @Autowired
+    private PackageDependencyService packageDependencyService;
+
+    @Autowired
+    private DroolsService droolsService;
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public RulePackageVersion createVersion(Long packageId, String version, String description, String contentJson, String createdBy) {
@@ -45,7 +59,7 @@ public class RulePackageVersionServiceImpl extends ServiceImpl<RulePackageVersio
         if ((contentJson == null || contentJson.isEmpty()) && !rules.isEmpty()) {
             contentJson = rules.get(0).getContentJson();
         }
-        
+
         // Load Variables
         List<RuleVariable> variables = ruleVariableMapper.selectByPackageId(packageId);
         snapshot.setVariables(variables);
@@ -70,10 +84,19 @@ public class RulePackageVersionServiceImpl extends ServiceImpl<RulePackageVersio
         packageVersion.setDescription(description);
         packageVersion.setContentJson(contentJson);
         packageVersion.setSnapshotData(JSON.toJSONString(snapshot, SerializerFeature.WriteNonStringKeyAsString));
+        // Executions read only the compact runtime section, the full snapshot stays for rollback
+        packageVersion.setRuntimeData(RuntimeSnapshotCodec.encode(RuntimeSnapshot.of(snapshot)));
         packageVersion.setCreatedBy(createdBy);
         packageVersion.setCreatedAt(LocalDateTime.now());
         
         this.save(packageVersion);
+
+        // Record what the version embeds and refuse versions that embed themselves
+        RulePackage pkg = rulePackageMapper.selectById(packageId);
+        if (pkg != null) {
+            packageDependencyService.saveDependencies(pkg, packageVersion.getId(), contentJson);
+            packageDependencyService.checkCycles(pkg.getCode(), packageVersion.getId());
+        }
         return packageVersion;
     }
 
@@ -133,10 +156,26 @@ public class RulePackageVersionServiceImpl extends ServiceImpl<RulePackageVersio
         if (pkg == null) {
             throw new RuntimeException("Package not found");
         }
+        packageDependencyService.checkCycles(pkg.getCode(), versionId);
         
         pkg.setActiveVersionId(versionId);
         // Also update status to PUBLISHED if not already
         pkg.setStatus("PUBLISHED");
         rulePackageMapper.updateById(pkg);
+
+        // Compile the new version and everything it embeds once other connections can see it
+        String packageCode = pkg.getCode();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                droolsService.reloadRules(packageCode);
+                try {
+                    droolsService.warmUp(packageCode);
+                } catch (Exception e) {
+                    // The version is active either way, executions compile on first use
+                    log.warn("Failed to warm up package {} after activation", packageCode, e);
+                }
+            }
+        });
     }
 }
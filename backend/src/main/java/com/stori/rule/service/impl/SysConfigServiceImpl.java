@@ -1,23 +1,64 @@
 package com.stori.rule.service.impl;
 
+import com.stori.rule.common.TenantContext;
 import com.stori.rule.entity.SysConfig;
 import com.stori.rule.mapper.SysConfigMapper;
 import com.stori.rule.service.SysConfigService;
+import com.stori.rule.service.config.SysConfigChangedEvent;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Configs are read through a per-tenant snapshot of the whole sys_config table of that tenant.
+ * Writes here reload the snapshot at once; changes made by other instances are picked up by a
+ * scheduled check of a checksum over all keys and values. Every change is published as a {@link SysConfigChangedEvent}.
+ */
+@Slf4j
 @Service
 public class SysConfigServiceImpl implements SysConfigService {
 
     @Autowired
     private SysConfigMapper sysConfigMapper;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private static final class Snapshot {
+        private final String version;
+        private final Map<String, String> values;
+
+        private Snapshot(String version, Map<String, String> values) {
+            this.version = version;
+            this.values = values;
+        }
+    }
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    // Serializes reloads so change events are published once and in order
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
     @Override
     public String getValue(String key) {
-        SysConfig config = sysConfigMapper.selectByKey(key);
-        return config != null ? config.getConfigValue() : null;
+        String tenantId = TenantContext.getTenantId();
+        Snapshot snapshot = snapshots.get(tenantId);
+        if (snapshot == null) {
+            snapshot = reload(tenantId);
+        }
+        return snapshot.values.get(key);
     }
 
     @Override
@@ -40,8 +81,11 @@ public class SysConfigServiceImpl implements SysConfigService {
             if (description != null) {
                 config.setDescription(description);
             }
+            // The loaded timestamp would stop the update fill from setting a new one
+            config.setUpdatedAt(null);
             sysConfigMapper.updateById(config);
         }
+        reload(TenantContext.getTenantId());
     }
 
     @Override
@@ -52,5 +96,66 @@ public class SysConfigServiceImpl implements SysConfigService {
     @Override
     public void deleteConfig(String key) {
         sysConfigMapper.deleteByKey(key);
+        reload(TenantContext.getTenantId());
+    }
+
+    /**
+     * Reloads the snapshots of tenants whose configs changed, typically on another instance
+     */
+    @Scheduled(fixedDelayString = "${srule.config.cache.refresh-interval-ms:30000}")
+    public void refresh() {
+        for (Map.Entry<String, Snapshot> entry : new ArrayList<>(snapshots.entrySet())) {
+            String tenantId = entry.getKey();
+            try {
+                TenantContext.runWithTenant(tenantId, () -> {
+                    if (!Objects.equals(sysConfigMapper.selectVersion(), entry.getValue().version)) {
+                        reload(tenantId);
+                    }
+                });
+            } catch (Exception e) {
+                log.warn("Failed to refresh configs of tenant {}", tenantId, e);
+            }
+        }
+    }
+
+    /**
+     * Loads all configs of the tenant in the current context and publishes what changed
+     */
+    private Snapshot reload(String tenantId) {
+        reloadLock.lock();
+        try {
+            // Versioned before reading, so a concurrent change is seen again by the next check
+            String version = sysConfigMapper.selectVersion();
+            Map<String, String> values = new HashMap<>();
+            for (SysConfig config : sysConfigMapper.selectList(null)) {
+                values.put(config.getConfigKey(), config.getConfigValue());
+            }
+            Snapshot snapshot = new Snapshot(version, Collections.unmodifiableMap(values));
+            Snapshot previous = snapshots.put(tenantId, snapshot);
+            if (previous != null) {
+                publishChanges(tenantId, previous.values, snapshot.values);
+            }
+            return snapshot;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private void publishChanges(String tenantId, Map<String, String> before, Map<String, String> after) {
+        Set<String> keys = new HashSet<>(before.keySet());
+        keys.addAll(after.keySet());
+        for (String key : keys) {
+            String oldValue = before.get(key);
+            String value = after.get(key);
+            if (Objects.equals(oldValue, value) && before.containsKey(key) == after.containsKey(key)) {
+                continue;
+            }
+            log.debug("Config {} of tenant {} changed", key, tenantId);
+            try {
+                eventPublisher.publishEvent(new SysConfigChangedEvent(tenantId, key, oldValue, value));
+            } catch (Exception e) {
+                log.error("Config change listener failed for {}", key, e);
+            }
+        }
     }
 }
@@ -0,0 +1,145 @@
+package com.stori.rule.service.metrics;
+
+import com.stori.rule.common.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.kie.api.event.rule.AgendaEventListener;
+import org.kie.api.event.rule.BeforeMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of the execution pipeline, exported through actuator.
+ * Meters are cached per tag combination so the execution path never goes through a meter builder.
+ */
+@Component
+public class ExecutionMetrics {
+
+    public enum Stage {
+        METADATA_RESOLVE,
+        KIEBASE_LOOKUP,
+        FEATURE,
+        SESSION_CREATE,
+        FIRE_RULES,
+        RECORD_ENQUEUE
+    }
+
+    private static final String DRAFT_VERSION = "draft";
+    private static final String NO_FEATURE_TYPE = "-";
+
+    /** Count rule firings per graph node, a listener on every session of every package */
+    @Value("${srule.metrics.node-firings.enabled:false}")
+    private boolean nodeFiringsEnabled;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final class MeterKey {
+        private final Object kind;
+        private final String packageCode;
+        private final String version;
+        private final String tenantId;
+        private final String detail;
+
+        private MeterKey(Object kind, String packageCode, String version, String tenantId, String detail) {
+            this.kind = kind;
+            this.packageCode = packageCode;
+            this.version = version;
+            this.tenantId = tenantId;
+            this.detail = detail;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof MeterKey)) return false;
+            MeterKey key = (MeterKey) o;
+            return kind == key.kind && packageCode.equals(key.packageCode) && version.equals(key.version)
+                    && Objects.equals(tenantId, key.tenantId) && Objects.equals(detail, key.detail);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, packageCode, version, tenantId, detail);
+        }
+    }
+
+    private final Map<MeterKey, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Map<MeterKey, Timer> compileTimers = new ConcurrentHashMap<>();
+    private final Map<MeterKey, Counter> firingCounters = new ConcurrentHashMap<>();
+
+    public void recordStage(Stage stage, String packageCode, Long versionId, long nanos) {
+        recordStage(stage, packageCode, versionId, NO_FEATURE_TYPE, nanos);
+    }
+
+    public void recordStage(Stage stage, String packageCode, Long versionId, String featureType, long nanos) {
+        String version = versionTag(versionId);
+        String tenantId = TenantContext.getTenantId();
+        String type = featureType != null ? featureType : NO_FEATURE_TYPE;
+        stageTimers.computeIfAbsent(new MeterKey(stage, packageCode, version, tenantId, type), k ->
+                Timer.builder("srule.execution.stage")
+                        .description("Time spent per rule execution stage")
+                        .tag("stage", stage.name().toLowerCase())
+                        .tag("package", packageCode)
+                        .tag("version", version)
+                        .tag("tenant", tenantId)
+                        .tag("featureType", type)
+                        .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordCompile(String packageCode, Long versionId, long nanos) {
+        String version = versionTag(versionId);
+        compileTimers.computeIfAbsent(new MeterKey("compile", packageCode, version, null, null), k ->
+                Timer.builder("srule.kiebase.compile")
+                        .description("KieBase build time")
+                        .tag("package", packageCode)
+                        .tag("version", version)
+                        .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Listener counting rule firings per graph node, shared by every session of one KieBase.
+     * Counters are resolved for every node up front, so a firing costs two map reads and an increment.
+     * @return null when srule.metrics.node-firings.enabled is off
+     */
+    public AgendaEventListener nodeFiringListener(RuleNodes ruleNodes, String packageCode, Long versionId) {
+        if (!nodeFiringsEnabled) return null;
+        String version = versionTag(versionId);
+        String tenantId = TenantContext.getTenantId();
+        Map<String, Counter> counters = new HashMap<>();
+        for (String node : ruleNodes.nodeIds()) {
+            counters.put(node, firingCounters.computeIfAbsent(new MeterKey("fired", packageCode, version, tenantId, node), k ->
+                    Counter.builder("srule.rule.fired")
+                            .description("Rule firings per graph node")
+                            .tag("package", packageCode)
+                            .tag("version", version)
+                            .tag("tenant", tenantId)
+                            .tag("node", node)
+                            .register(meterRegistry)));
+        }
+        return new DefaultAgendaEventListener() {
+            @Override
+            public void beforeMatchFired(BeforeMatchFiredEvent event) {
+                Counter counter = counters.get(ruleNodes.nodeOf(event.getMatch().getRule()));
+                if (counter != null) {
+                    counter.increment();
+                }
+            }
+        };
+    }
+
+    private static String versionTag(Long versionId) {
+        return versionId == null ? DRAFT_VERSION : versionId.toString();
+    }
+}
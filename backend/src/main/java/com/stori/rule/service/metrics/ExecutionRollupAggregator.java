@@ -0,0 +1,212 @@
+package com.stori.rule.service.metrics;
+
+import com.stori.rule.entity.RuleExecutionRollup;
+import com.stori.rule.mapper.RuleExecutionRollupMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process per-minute execution metrics by tenant, package and version.
+ * Executions only touch striped counters and a lock-free histogram; closed minutes are flushed
+ * to rule_execution_rollup in the background. Rollups that fail to insert are kept and retried
+ * with the next flush, rollups past retention are deleted periodically.
+ */
+@Slf4j
+@Component
+public class ExecutionRollupAggregator {
+
+    private static final long MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final int INSERT_CHUNK = 500;
+
+    /** Rollups kept for retry while the database is unavailable, about a day of 50 active packages */
+    @Value("${srule.metrics.rollup.max-pending:100000}")
+    private int maxPending;
+
+    @Value("${srule.metrics.rollup.retention-days:90}")
+    private int retentionDays;
+
+    @Value("${srule.metrics.rollup.purge-batch-size:5000}")
+    private int purgeBatchSize;
+
+    @Autowired
+    private RuleExecutionRollupMapper ruleExecutionRollupMapper;
+
+    private static final class Key {
+        private final String tenantId;
+        private final String packageCode;
+        private final Long versionId;
+        private final long minute;
+
+        private Key(String tenantId, String packageCode, Long versionId, long minute) {
+            this.tenantId = tenantId;
+            this.packageCode = packageCode;
+            this.versionId = versionId;
+            this.minute = minute;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return minute == key.minute && Objects.equals(tenantId, key.tenantId)
+                    && packageCode.equals(key.packageCode) && Objects.equals(versionId, key.versionId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tenantId, packageCode, versionId, minute);
+        }
+    }
+
+    private static final class Bucket {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalMicros = new LongAdder();
+        private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        // Recorders inside the bucket, and whether the flush took it out of the map
+        private final AtomicInteger writers = new AtomicInteger();
+        private volatile boolean sealed;
+    }
+
+    private final Map<Key, Bucket> buckets = new ConcurrentHashMap<>();
+    // Rollups of flushed minutes not yet in the database, only touched under flushLock
+    private final List<RuleExecutionRollup> pending = new ArrayList<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * @param versionId null for draft executions
+     */
+    public void record(String tenantId, String packageCode, Long versionId, long elapsedNanos, boolean success) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(elapsedNanos);
+        long minute = System.currentTimeMillis() / MINUTE_MILLIS;
+        Key key = new Key(tenantId, packageCode, versionId, minute);
+        Bucket bucket;
+        while (true) {
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket());
+            bucket.writers.incrementAndGet();
+            if (!bucket.sealed) break;
+            // Taken by a flush after we looked it up, the next lookup creates a fresh one
+            bucket.writers.decrementAndGet();
+        }
+        try {
+            bucket.count.increment();
+            if (!success) {
+                bucket.failures.increment();
+            }
+            bucket.totalMicros.add(micros);
+            bucket.maxMicros.accumulate(micros);
+            bucket.histogram.record(micros);
+        } finally {
+            bucket.writers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Flush minutes that are over; a short grace period lets in-flight executions land first
+     */
+    @Scheduled(fixedDelayString = "${srule.metrics.rollup.flush-interval-ms:15000}")
+    public void flush() {
+        flush((System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(5)) / MINUTE_MILLIS);
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        flush(Long.MAX_VALUE);
+    }
+
+    /**
+     * Delete rollups past retention in batches; every instance may run it, a repeated delete finds nothing
+     */
+    @Scheduled(fixedDelayString = "${srule.metrics.rollup.purge-interval-ms:3600000}")
+    public void purge() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        try {
+            long deleted = 0;
+            int n;
+            do {
+                n = ruleExecutionRollupMapper.deleteBefore(before, purgeBatchSize);
+                deleted += n;
+            } while (n >= purgeBatchSize);
+            if (deleted > 0) {
+                log.info("Deleted {} execution rollups past {} days retention", deleted, retentionDays);
+            }
+        } catch (Exception e) {
+            log.error("Failed to delete execution rollups past retention", e);
+        }
+    }
+
+    private void flush(long beforeMinute) {
+        flushLock.lock();
+        try {
+            for (Key key : new ArrayList<>(buckets.keySet())) {
+                if (key.minute < beforeMinute) {
+                    Bucket bucket = buckets.get(key);
+                    if (bucket != null) {
+                        bucket.sealed = true;
+                        buckets.remove(key, bucket);
+                        // Recorders that got in before the seal finish within nanoseconds
+                        while (bucket.writers.get() > 0) {
+                            Thread.onSpinWait();
+                        }
+                        pending.add(toRollup(key, bucket));
+                    }
+                }
+            }
+            try {
+                // Chunked, so a backlog after an outage does not become one oversized statement
+                while (!pending.isEmpty()) {
+                    List<RuleExecutionRollup> chunk = pending.subList(0, Math.min(INSERT_CHUNK, pending.size()));
+                    ruleExecutionRollupMapper.insertBatch(new ArrayList<>(chunk));
+                    chunk.clear();
+                }
+            } catch (Exception e) {
+                log.error("Failed to flush {} execution rollups, will retry", pending.size(), e);
+                if (pending.size() > maxPending) {
+                    int dropped = pending.size() - maxPending;
+                    pending.subList(0, dropped).clear();
+                    log.error("Dropped the {} oldest execution rollups over srule.metrics.rollup.max-pending", dropped);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private RuleExecutionRollup toRollup(Key key, Bucket bucket) {
+        RuleExecutionRollup rollup = new RuleExecutionRollup();
+        rollup.setTenantId(key.tenantId);
+        rollup.setPackageCode(key.packageCode);
+        rollup.setVersionId(key.versionId);
+        rollup.setBucketMinute(LocalDateTime.ofInstant(Instant.ofEpochMilli(key.minute * MINUTE_MILLIS), ZoneId.systemDefault()));
+        rollup.setExecCount(bucket.count.sum());
+        rollup.setFailCount(bucket.failures.sum());
+        rollup.setTotalTimeUs(bucket.totalMicros.sum());
+        rollup.setMaxTimeUs(bucket.maxMicros.get());
+        rollup.setP50Us(bucket.histogram.valueAt(0.50));
+        rollup.setP95Us(bucket.histogram.valueAt(0.95));
+        rollup.setP99Us(bucket.histogram.valueAt(0.99));
+        rollup.setHistogram(bucket.histogram.encode());
+        rollup.setCreatedAt(LocalDateTime.now());
+        return rollup;
+    }
+}
@@ -0,0 +1,203 @@
+package com.stori.rule.service.metrics;
+
+import com.stori.rule.common.TenantContext;
+import com.stori.rule.dto.NodeProfile;
+import com.stori.rule.service.SysConfigService;
+import com.stori.rule.service.config.SysConfigChangedEvent;
+import org.kie.api.definition.rule.Rule;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.AgendaEventListener;
+import org.kie.api.event.rule.BeforeMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.event.rule.MatchCancelledEvent;
+import org.kie.api.event.rule.MatchCreatedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in per-node profiler of rule graph executions.
+ * Generated rules of a node share its GROUP_nodeId agenda group, so agenda events can be attributed
+ * to graph nodes. Drools evaluates the network lazily while firing, so the time between two firings
+ * is attributed to the node about to fire as its evaluation time.
+ * <p>
+ * Whether a package is profiled is a sys_config entry, so every instance follows it; the statistics
+ * themselves are collected by each instance for the executions it serves.
+ */
+@Component
+public class NodeProfiler {
+
+    private static final double NANOS_PER_MS = 1_000_000.0;
+    private static final String PROFILING_KEY_PREFIX = "profiler.package.";
+
+    /** Profile every package, otherwise only those enabled through the API */
+    @Value("${srule.profiler.enabled:false}")
+    private boolean enabledForAll;
+
+    @Autowired
+    private SysConfigService sysConfigService;
+
+    private static final class Key {
+        private final String tenantId;
+        private final String packageCode;
+        private final Long versionId;
+
+        private Key(String tenantId, String packageCode, Long versionId) {
+            this.tenantId = tenantId;
+            this.packageCode = packageCode;
+            this.versionId = versionId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(tenantId, key.tenantId) && packageCode.equals(key.packageCode)
+                    && Objects.equals(versionId, key.versionId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tenantId, packageCode, versionId);
+        }
+    }
+
+    private static final class NodeStats {
+        private final LongAdder fires = new LongAdder();
+        private final LongAdder matches = new LongAdder();
+        private final LongAdder cancels = new LongAdder();
+        private final LongAdder fireNanos = new LongAdder();
+        private final LongAccumulator maxFireNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder evalNanos = new LongAdder();
+    }
+
+    private final Map<Key, Map<String, NodeStats>> profiles = new ConcurrentHashMap<>();
+
+    public boolean isProfiling(String packageCode) {
+        return enabledForAll || "true".equals(sysConfigService.getValue(PROFILING_KEY_PREFIX + packageCode));
+    }
+
+    public void setProfiling(String packageCode, boolean enabled) {
+        if (enabled) {
+            sysConfigService.setValue(PROFILING_KEY_PREFIX + packageCode, "true", "Node profiling of package " + packageCode);
+        } else {
+            sysConfigService.deleteConfig(PROFILING_KEY_PREFIX + packageCode);
+        }
+    }
+
+    /**
+     * Profiling was turned off, here or on another instance, so drop what this one collected
+     */
+    @EventListener(condition = "#event.key.startsWith('profiler.package.')")
+    public void onProfilingChanged(SysConfigChangedEvent event) {
+        if (!"true".equals(event.getValue())) {
+            removeProfiles(event.getTenantId(), event.getKey().substring(PROFILING_KEY_PREFIX.length()));
+        }
+    }
+
+    public void reset(String packageCode) {
+        removeProfiles(TenantContext.getTenantId(), packageCode);
+    }
+
+    private void removeProfiles(String tenantId, String packageCode) {
+        profiles.keySet().removeIf(key -> Objects.equals(tenantId, key.tenantId) && packageCode.equals(key.packageCode));
+    }
+
+    /**
+     * Listener of one session; add it right before fireAllRules
+     * @param ruleNodes node ids of the session's KieBase
+     * @param versionId null for draft executions
+     */
+    public AgendaEventListener listener(RuleNodes ruleNodes, String packageCode, Long versionId) {
+        Map<String, NodeStats> nodes = profiles.computeIfAbsent(
+                new Key(TenantContext.getTenantId(), packageCode, versionId), k -> new ConcurrentHashMap<>());
+        return new DefaultAgendaEventListener() {
+            private long mark = System.nanoTime();
+            private long fireStart;
+
+            @Override
+            public void matchCreated(MatchCreatedEvent event) {
+                statsOf(event.getMatch().getRule()).matches.increment();
+            }
+
+            @Override
+            public void matchCancelled(MatchCancelledEvent event) {
+                statsOf(event.getMatch().getRule()).cancels.increment();
+            }
+
+            @Override
+            public void beforeMatchFired(BeforeMatchFiredEvent event) {
+                fireStart = System.nanoTime();
+                statsOf(event.getMatch().getRule()).evalNanos.add(fireStart - mark);
+            }
+
+            @Override
+            public void afterMatchFired(AfterMatchFiredEvent event) {
+                mark = System.nanoTime();
+                long elapsed = mark - fireStart;
+                NodeStats stats = statsOf(event.getMatch().getRule());
+                stats.fires.increment();
+                stats.fireNanos.add(elapsed);
+                stats.maxFireNanos.accumulate(elapsed);
+            }
+
+            private NodeStats statsOf(Rule rule) {
+                return nodes.computeIfAbsent(ruleNodes.nodeOf(rule), k -> new NodeStats());
+            }
+        };
+    }
+
+    /**
+     * Node statistics, hottest first
+     * @param versionId null to merge all versions, node ids are stable across versions of a graph
+     */
+    public List<NodeProfile> profile(String packageCode, Long versionId) {
+        String tenantId = TenantContext.getTenantId();
+        Map<String, NodeProfile> merged = new HashMap<>();
+        for (Map.Entry<Key, Map<String, NodeStats>> entry : profiles.entrySet()) {
+            Key key = entry.getKey();
+            if (!Objects.equals(tenantId, key.tenantId) || !packageCode.equals(key.packageCode)
+                    || (versionId != null && !versionId.equals(key.versionId))) {
+                continue;
+            }
+            for (Map.Entry<String, NodeStats> node : entry.getValue().entrySet()) {
+                NodeStats stats = node.getValue();
+                NodeProfile profile = merged.computeIfAbsent(node.getKey(), k -> {
+                    NodeProfile p = new NodeProfile();
+                    p.setNodeId(k);
+                    return p;
+                });
+                profile.setFireCount(profile.getFireCount() + stats.fires.sum());
+                profile.setMatchCount(profile.getMatchCount() + stats.matches.sum());
+                profile.setCancelCount(profile.getCancelCount() + stats.cancels.sum());
+                profile.setFireTimeMs(profile.getFireTimeMs() + stats.fireNanos.sum() / NANOS_PER_MS);
+                profile.setMaxFireTimeMs(Math.max(profile.getMaxFireTimeMs(), stats.maxFireNanos.get() / NANOS_PER_MS));
+                profile.setEvalTimeMs(profile.getEvalTimeMs() + stats.evalNanos.sum() / NANOS_PER_MS);
+            }
+        }
+
+        double totalMs = 0;
+        for (NodeProfile profile : merged.values()) {
+            totalMs += profile.getFireTimeMs() + profile.getEvalTimeMs();
+        }
+        List<NodeProfile> result = new ArrayList<>(merged.values());
+        for (NodeProfile profile : result) {
+            profile.setAvgFireTimeMs(profile.getFireCount() == 0 ? 0 : profile.getFireTimeMs() / profile.getFireCount());
+            profile.setHeat(totalMs == 0 ? 0 : (profile.getFireTimeMs() + profile.getEvalTimeMs()) / totalMs);
+        }
+        result.sort(Comparator.comparingDouble(NodeProfile::getHeat).reversed());
+        return result;
+    }
+}
@@ -0,0 +1,73 @@
+package com.stori.rule.service.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.kie.api.KieBase;
+import org.kie.api.definition.KiePackage;
+import org.kie.api.definition.rule.Rule;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Graph node id of every rule of one KieBase, resolved when the KieBase is built and dropped with it.
+ * Every rule of a node shares the GROUP_nodeId agenda group, which the public KIE API does not
+ * expose, so it is read reflectively here rather than on each firing.
+ */
+@Slf4j
+public final class RuleNodes {
+
+    private static final String AGENDA_GROUP_PREFIX = "GROUP_";
+
+    // Node id by rule name within each DRL package
+    private final Map<String, Map<String, String>> nodes;
+    private final Set<String> nodeIds;
+
+    private RuleNodes(Map<String, Map<String, String>> nodes, Set<String> nodeIds) {
+        this.nodes = nodes;
+        this.nodeIds = nodeIds;
+    }
+
+    public static RuleNodes of(KieBase kieBase) {
+        Map<String, Map<String, String>> nodes = new HashMap<>();
+        Set<String> nodeIds = new HashSet<>();
+        for (KiePackage kiePackage : kieBase.getKiePackages()) {
+            Map<String, String> byName = new HashMap<>();
+            for (Rule rule : kiePackage.getRules()) {
+                String node = resolve(rule);
+                byName.put(rule.getName(), node);
+                nodeIds.add(node);
+            }
+            nodes.put(kiePackage.getName(), byName);
+        }
+        return new RuleNodes(nodes, Collections.unmodifiableSet(nodeIds));
+    }
+
+    /**
+     * Node id of a rule of this KieBase, the rule name for rules outside a node group
+     */
+    public String nodeOf(Rule rule) {
+        Map<String, String> byName = nodes.get(rule.getPackageName());
+        String node = byName != null ? byName.get(rule.getName()) : null;
+        return node != null ? node : rule.getName();
+    }
+
+    public Collection<String> nodeIds() {
+        return nodeIds;
+    }
+
+    private static String resolve(Rule rule) {
+        try {
+            Object group = rule.getClass().getMethod("getAgendaGroup").invoke(rule);
+            if (group instanceof String && ((String) group).startsWith(AGENDA_GROUP_PREFIX)) {
+                return ((String) group).substring(AGENDA_GROUP_PREFIX.length());
+            }
+        } catch (ReflectiveOperationException e) {
+            log.debug("Agenda group not available for rule {}", rule.getName());
+        }
+        return rule.getName();
+    }
+}
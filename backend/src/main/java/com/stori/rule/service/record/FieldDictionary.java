@@ -0,0 +1,69 @@
+package com.stori.rule.service.record;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ordered field codes of a package version, used to replace map keys with small indexes in
+ * binary records. Identified by a hash of the field list so equal lists share one dictionary.
+ */
+public final class FieldDictionary {
+
+    private final long hash;
+    private final List<String> fields;
+    private final Map<String, Integer> indexes;
+
+    public FieldDictionary(List<String> fields) {
+        this.fields = Collections.unmodifiableList(new ArrayList<>(fields));
+        Map<String, Integer> map = new HashMap<>();
+        for (int i = 0; i < this.fields.size(); i++) {
+            map.putIfAbsent(this.fields.get(i), i);
+        }
+        this.indexes = map;
+        this.hash = hash(this.fields);
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    public List<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * @return field index, or -1 if the key is not in the dictionary
+     */
+    public int indexOf(String field) {
+        Integer index = indexes.get(field);
+        return index == null ? -1 : index;
+    }
+
+    public String fieldAt(int index) {
+        return index < fields.size() ? fields.get(index) : "#" + index;
+    }
+
+    private static long hash(List<String> fields) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String field : fields) {
+                digest.update(field.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            byte[] bytes = digest.digest();
+            long h = 0;
+            for (int i = 0; i < 8; i++) {
+                h = (h << 8) | (bytes[i] & 0xFF);
+            }
+            return h;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
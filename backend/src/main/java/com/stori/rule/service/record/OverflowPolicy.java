@@ -0,0 +1,19 @@
+package com.stori.rule.service.record;
+
+/**
+ * What the record pipeline does when records arrive faster than they can be written
+ */
+public enum OverflowPolicy {
+    /**
+     * Drop the new record when the queue is full
+     */
+    DROP,
+    /**
+     * Keep only a sample of new records once the queue passes its high watermark, drop when full
+     */
+    SAMPLE,
+    /**
+     * Wait (bounded) for free space, drop if none frees up in time
+     */
+    BLOCK
+}
@@ -0,0 +1,64 @@
+package com.stori.rule.service.record;
+
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.stori.rule.entity.FeatureRecord;
+import com.stori.rule.entity.RuleExecutionRecord;
+import com.stori.rule.mapper.FeatureRecordMapper;
+import com.stori.rule.mapper.RuleExecutionRecordMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes serialized execution records to the database with multi-row inserts
+ */
+@Component
+public class RecordBatchWriter {
+
+    @Autowired
+    private FeatureRecordMapper featureRecordMapper;
+
+    @Autowired
+    private RuleExecutionRecordMapper ruleExecutionRecordMapper;
+
+    @Autowired
+    private RecordTableManager recordTableManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Both lists are written in one transaction so a retried batch is never half applied.
+     * Partitions are resolved first because DDL would implicitly commit the transaction.
+     */
+    public void write(List<FeatureRecord> featureRecords, List<RuleExecutionRecord> ruleRecords) {
+        // Partitioned rows need ids that are unique across tables; the base table keeps auto increment
+        boolean partitioned = recordTableManager.isEnabled();
+        // A batch may straddle midnight, so rows are grouped by target partition
+        Map<String, List<FeatureRecord>> featuresByTable = new LinkedHashMap<>();
+        for (FeatureRecord record : featureRecords) {
+            if (partitioned && record.getId() == null) {
+                record.setId(IdWorker.getId());
+            }
+            String table = recordTableManager.tableFor(RecordTableManager.FEATURE_TABLE, record.getCreatedAt());
+            featuresByTable.computeIfAbsent(table, k -> new ArrayList<>()).add(record);
+        }
+        Map<String, List<RuleExecutionRecord>> rulesByTable = new LinkedHashMap<>();
+        for (RuleExecutionRecord record : ruleRecords) {
+            if (partitioned && record.getId() == null) {
+                record.setId(IdWorker.getId());
+            }
+            String table = recordTableManager.tableFor(RecordTableManager.RULE_TABLE, record.getCreatedAt());
+            rulesByTable.computeIfAbsent(table, k -> new ArrayList<>()).add(record);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            featuresByTable.forEach(featureRecordMapper::insertBatch);
+            rulesByTable.forEach(ruleExecutionRecordMapper::insertBatch);
+        });
+    }
+}
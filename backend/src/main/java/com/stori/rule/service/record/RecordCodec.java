@@ -0,0 +1,276 @@
+package com.stori.rule.service.record;
+
+import com.alibaba.fastjson.JSON;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary encoding of recorded values.
+ * <p>
+ * Layout: [byte flags][body], the body is deflated when flags has {@link #FLAG_DEFLATED}.
+ * Top-level map keys found in the {@link FieldDictionary} are written as their index + 1, other
+ * keys as 0 followed by the key string. Values are tagged; integers are zigzag varints and types
+ * without a tag fall back to JSON text.
+ */
+public final class RecordCodec {
+
+    private static final byte FLAG_DEFLATED = 1;
+    // Deflate overhead outweighs the gain on small bodies
+    private static final int DEFLATE_THRESHOLD = 128;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_TRUE = 1;
+    private static final byte TAG_FALSE = 2;
+    private static final byte TAG_INT = 3;
+    private static final byte TAG_DOUBLE = 4;
+    private static final byte TAG_STRING = 5;
+    private static final byte TAG_DECIMAL = 6;
+    private static final byte TAG_MAP = 7;
+    private static final byte TAG_LIST = 8;
+    private static final byte TAG_JSON = 9;
+
+    private RecordCodec() {
+    }
+
+    public static byte[] encodeMap(Map<String, Object> values, FieldDictionary dictionary) {
+        if (values == null) return null;
+        Writer out = new Writer();
+        out.varint(values.size());
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            int index = dictionary == null ? -1 : dictionary.indexOf(entry.getKey());
+            out.varint(index + 1);
+            if (index < 0) {
+                out.string(entry.getKey());
+            }
+            out.value(entry.getValue());
+        }
+        return finish(out);
+    }
+
+    public static byte[] encodeValue(Object value) {
+        Writer out = new Writer();
+        out.value(value);
+        return finish(out);
+    }
+
+    public static Map<String, Object> decodeMap(byte[] data, FieldDictionary dictionary) {
+        if (data == null) return null;
+        Reader in = new Reader(body(data));
+        int size = in.varint();
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            int index = in.varint() - 1;
+            String key;
+            if (index < 0) {
+                key = in.string();
+            } else {
+                key = dictionary == null ? "#" + index : dictionary.fieldAt(index);
+            }
+            values.put(key, in.value());
+        }
+        return values;
+    }
+
+    public static Object decodeValue(byte[] data) {
+        if (data == null) return null;
+        return new Reader(body(data)).value();
+    }
+
+    private static byte[] finish(Writer out) {
+        byte[] body = out.toByteArray();
+        if (body.length >= DEFLATE_THRESHOLD) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(body);
+                deflater.finish();
+                byte[] buffer = new byte[body.length + 1];
+                buffer[0] = FLAG_DEFLATED;
+                int length = deflater.deflate(buffer, 1, buffer.length - 1);
+                // Keep the plain body if deflate did not fit into it
+                if (deflater.finished()) {
+                    byte[] result = new byte[length + 1];
+                    System.arraycopy(buffer, 0, result, 0, length + 1);
+                    return result;
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+        byte[] result = new byte[body.length + 1];
+        System.arraycopy(body, 0, result, 1, body.length);
+        return result;
+    }
+
+    private static ByteBuffer body(byte[] data) {
+        if ((data[0] & FLAG_DEFLATED) == 0) {
+            return ByteBuffer.wrap(data, 1, data.length - 1);
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, 1, data.length - 1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated binary record");
+                }
+                out.write(buffer, 0, n);
+            }
+            return ByteBuffer.wrap(out.toByteArray());
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt binary record", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static final class Writer extends ByteArrayOutputStream {
+
+        Writer() {
+            super(256);
+        }
+
+        void varint(long v) {
+            while ((v & ~0x7FL) != 0) {
+                write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            write((int) v);
+        }
+
+        void string(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        void value(Object value) {
+            if (value == null) {
+                write(TAG_NULL);
+            } else if (value instanceof Boolean) {
+                write((Boolean) value ? TAG_TRUE : TAG_FALSE);
+            } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                long v = ((Number) value).longValue();
+                write(TAG_INT);
+                varint((v << 1) ^ (v >> 63));
+            } else if (value instanceof Double || value instanceof Float) {
+                long bits = Double.doubleToRawLongBits(((Number) value).doubleValue());
+                write(TAG_DOUBLE);
+                for (int i = 56; i >= 0; i -= 8) {
+                    write((int) (bits >>> i));
+                }
+            } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+                write(TAG_DECIMAL);
+                string(value.toString());
+            } else if (value instanceof CharSequence) {
+                write(TAG_STRING);
+                string(value.toString());
+            } else if (value instanceof Map) {
+                Map<?, ?> map = (Map<?, ?>) value;
+                write(TAG_MAP);
+                varint(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    string(String.valueOf(entry.getKey()));
+                    value(entry.getValue());
+                }
+            } else if (value instanceof Collection) {
+                Collection<?> list = (Collection<?>) value;
+                write(TAG_LIST);
+                varint(list.size());
+                for (Object item : list) {
+                    value(item);
+                }
+            } else {
+                write(TAG_JSON);
+                string(JSON.toJSONString(value));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final ByteBuffer buffer;
+
+        Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        long varlong() {
+            long v = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get();
+                v |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return v;
+        }
+
+        int varint() {
+            return (int) varlong();
+        }
+
+        String string() {
+            int length = varint();
+            String s = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return s;
+        }
+
+        Object value() {
+            byte tag = buffer.get();
+            switch (tag) {
+                case TAG_NULL:
+                    return null;
+                case TAG_TRUE:
+                    return Boolean.TRUE;
+                case TAG_FALSE:
+                    return Boolean.FALSE;
+                case TAG_INT: {
+                    long v = varlong();
+                    return (v >>> 1) ^ -(v & 1);
+                }
+                case TAG_DOUBLE:
+                    return buffer.getDouble();
+                case TAG_DECIMAL:
+                    return new BigDecimal(string());
+                case TAG_STRING:
+                    return string();
+                case TAG_MAP: {
+                    int size = varint();
+                    Map<String, Object> map = new LinkedHashMap<>();
+                    for (int i = 0; i < size; i++) {
+                        String key = string();
+                        map.put(key, value());
+                    }
+                    return map;
+                }
+                case TAG_LIST: {
+                    int size = varint();
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(value());
+                    }
+                    return list;
+                }
+                case TAG_JSON:
+                    return JSON.parse(string());
+                default:
+                    throw new IllegalArgumentException("Unknown value tag in binary record: " + tag);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.stori.rule.service.record;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A feature or rule execution record waiting in the record pipeline.
+ * Values are kept raw and serialized by the drainer, off the request thread.
+ */
+@Data
+public class RecordEvent {
+
+    public enum Kind { FEATURE, RULE }
+
+    private Kind kind;
+    private String reqId;
+    private String tenantId;
+    // Snowflake id of partitioned rows, createdAt is the time encoded in it
+    private Long id;
+    private LocalDateTime createdAt;
+    private long executionTime;
+    // Serialized values above this size are truncated, 0 means unlimited
+    private int maxPayloadBytes;
+    // Storage format from the recording policy, null uses the global default
+    private RecordFormat format;
+    // Field dictionary of the package version for binary rule records
+    private FieldDictionary dictionary;
+
+    // Feature record
+    private Long featureId;
+    private String featureName;
+    private Object featureValue;
+
+    // Rule execution record
+    private String packageCode;
+    private Map<String, Object> input;
+    private Map<String, Object> output;
+    private String status;
+    private String errorMessage;
+
+    public static RecordEvent feature(String reqId, Long featureId, String featureName, Object value, long executionTime) {
+        RecordEvent event = new RecordEvent();
+        event.setKind(Kind.FEATURE);
+        event.setReqId(reqId);
+        event.setFeatureId(featureId);
+        event.setFeatureName(featureName);
+        event.setFeatureValue(value);
+        event.setExecutionTime(executionTime);
+        return event;
+    }
+
+    public static RecordEvent rule(String reqId, String packageCode, Map<String, Object> input, Map<String, Object> output,
+                                   long executionTime, String status, String errorMessage) {
+        RecordEvent event = new RecordEvent();
+        event.setKind(Kind.RULE);
+        event.setReqId(reqId);
+        event.setPackageCode(packageCode);
+        event.setInput(input);
+        event.setOutput(output);
+        event.setExecutionTime(executionTime);
+        event.setStatus(status);
+        event.setErrorMessage(errorMessage);
+        return event;
+    }
+}
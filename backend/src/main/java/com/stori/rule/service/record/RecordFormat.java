@@ -0,0 +1,11 @@
+package com.stori.rule.service.record;
+
+/**
+ * Storage format of recorded inputs, outputs and feature values
+ */
+public enum RecordFormat {
+    /** fastjson text in the TEXT columns */
+    JSON,
+    /** {@link RecordCodec} bytes in the BLOB columns */
+    BINARY
+}
@@ -0,0 +1,288 @@
+package com.stori.rule.service.record;
+
+import com.alibaba.fastjson.JSON;
+import com.stori.rule.entity.FeatureRecord;
+import com.stori.rule.entity.RuleExecutionRecord;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded execution-record pipeline.
+ * Request threads only enqueue into a lock-free ring buffer; drainer threads serialize the records
+ * and append them to the local spool, or write them with multi-row inserts when the spool is off.
+ * While the spool is at its size cap the drainers stop taking records, so the ring buffer fills
+ * up and the overflow policy decides what happens to new ones.
+ */
+@Slf4j
+@Component
+public class RecordPipeline {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    @Value("${srule.record.queue-capacity:65536}")
+    private int queueCapacity;
+
+    @Value("${srule.record.batch-size:500}")
+    private int batchSize;
+
+    @Value("${srule.record.drainer-threads:1}")
+    private int drainerThreads;
+
+    @Value("${srule.record.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    @Value("${srule.record.overflow-policy:DROP}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${srule.record.sample-threshold:0.8}")
+    private double sampleThreshold;
+
+    @Value("${srule.record.sample-rate:0.1}")
+    private double sampleRate;
+
+    @Value("${srule.record.block-timeout-ms:100}")
+    private long blockTimeoutMs;
+
+    @Value("${srule.record.format:JSON}")
+    private RecordFormat defaultFormat;
+
+    @Autowired
+    private RecordSpool recordSpool;
+
+    @Autowired
+    private RecordBatchWriter recordBatchWriter;
+
+    @Autowired
+    private RecordSchemaRegistry recordSchemaRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private RecordRingBuffer<RecordEvent> buffer;
+    private int sampleWatermark;
+    private final List<Thread> drainers = new ArrayList<>();
+    private volatile boolean running;
+
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder sampledOutCount = new LongAdder();
+    private final LongAdder writtenCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        buffer = new RecordRingBuffer<>(queueCapacity);
+        sampleWatermark = (int) (buffer.capacity() * sampleThreshold);
+
+        Gauge.builder("srule.record.queue.depth", buffer, RecordRingBuffer::size)
+                .description("Execution records waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("srule.record.queue.capacity", buffer, RecordRingBuffer::capacity)
+                .register(meterRegistry);
+        FunctionCounter.builder("srule.record.dropped", droppedCount, LongAdder::sum)
+                .tag("reason", "overflow")
+                .register(meterRegistry);
+        FunctionCounter.builder("srule.record.dropped", sampledOutCount, LongAdder::sum)
+                .tag("reason", "sampled")
+                .register(meterRegistry);
+        FunctionCounter.builder("srule.record.written", writtenCount, LongAdder::sum)
+                .register(meterRegistry);
+        FunctionCounter.builder("srule.record.failed", failedCount, LongAdder::sum)
+                .register(meterRegistry);
+
+        running = true;
+        for (int i = 0; i < Math.max(1, drainerThreads); i++) {
+            Thread drainer = new Thread(this::drainLoop, "record-drainer-" + i);
+            drainer.setDaemon(true);
+            drainer.start();
+            drainers.add(drainer);
+        }
+        log.info("Record pipeline started: capacity={}, batchSize={}, drainers={}, overflowPolicy={}",
+                buffer.capacity(), batchSize, drainers.size(), overflowPolicy);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Thread drainer : drainers) {
+            LockSupport.unpark(drainer);
+            try {
+                drainer.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (buffer.size() > 0) {
+            log.warn("Record pipeline stopped with {} records still queued", buffer.size());
+        }
+    }
+
+    /**
+     * Enqueue a record without waiting on the database
+     * @return false if the record was dropped by the overflow policy
+     */
+    public boolean offer(RecordEvent event) {
+        if (overflowPolicy == OverflowPolicy.SAMPLE && buffer.size() >= sampleWatermark
+                && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            sampledOutCount.increment();
+            return false;
+        }
+        if (buffer.offer(event)) {
+            return true;
+        }
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+            while (System.nanoTime() < deadline) {
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                if (buffer.offer(event)) {
+                    return true;
+                }
+            }
+        }
+        droppedCount.increment();
+        return false;
+    }
+
+    public int getQueueDepth() {
+        return buffer.size();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum() + sampledOutCount.sum();
+    }
+
+    private void drainLoop() {
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        List<RecordEvent> batch = new ArrayList<>(batchSize);
+        while (true) {
+            if (recordSpool.isEnabled() && recordSpool.isFull()) {
+                // Records stay in the ring buffer until the shipper catches up
+                if (!running) return;
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            // Fill the batch until it is full or the flush interval has passed
+            long deadline = System.nanoTime() + flushIntervalNanos;
+            while (batch.size() < batchSize) {
+                if (buffer.drainTo(batch, batchSize - batch.size()) == 0) {
+                    if (!running || System.nanoTime() >= deadline) break;
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+            if (batch.isEmpty()) {
+                if (!running) return;
+                continue;
+            }
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<RecordEvent> batch) {
+        List<FeatureRecord> featureRecords = new ArrayList<>();
+        List<RuleExecutionRecord> ruleRecords = new ArrayList<>();
+        for (RecordEvent event : batch) {
+            try {
+                if (event.getKind() == RecordEvent.Kind.FEATURE) {
+                    featureRecords.add(toFeatureRecord(event));
+                } else {
+                    ruleRecords.add(toRuleRecord(event));
+                }
+            } catch (Exception e) {
+                failedCount.increment();
+                log.error("Failed to serialize execution record: {}", event.getReqId(), e);
+            }
+        }
+        int size = featureRecords.size() + ruleRecords.size();
+        if (size == 0) return;
+        try {
+            // With the spool enabled the database is written by the spool shipper instead
+            if (recordSpool.isEnabled()) {
+                recordSpool.append(featureRecords, ruleRecords);
+            } else {
+                recordBatchWriter.write(featureRecords, ruleRecords);
+            }
+            writtenCount.add(size);
+        } catch (Exception e) {
+            failedCount.add(size);
+            log.error("Failed to write {} execution records", size, e);
+        }
+    }
+
+    private FeatureRecord toFeatureRecord(RecordEvent event) {
+        FeatureRecord record = new FeatureRecord();
+        record.setId(event.getId());
+        record.setReqId(event.getReqId());
+        record.setFeatureId(event.getFeatureId());
+        record.setFeatureName(event.getFeatureName());
+        byte[] value = isBinary(event) ? RecordCodec.encodeValue(event.getFeatureValue()) : null;
+        if (value != null && fits(value, event.getMaxPayloadBytes())) {
+            record.setFeatureValueBin(value);
+        } else {
+            // Oversized binary payloads fall back to truncated JSON
+            record.setFeatureValue(RecordingPolicy.truncate(JSON.toJSONString(event.getFeatureValue()), event.getMaxPayloadBytes()));
+        }
+        record.setExecutionTimeMs(event.getExecutionTime());
+        record.setTenantId(event.getTenantId());
+        record.setCreatedAt(event.getCreatedAt());
+        return record;
+    }
+
+    private RuleExecutionRecord toRuleRecord(RecordEvent event) {
+        RuleExecutionRecord record = new RuleExecutionRecord();
+        record.setId(event.getId());
+        record.setReqId(event.getReqId());
+        record.setPackageCode(event.getPackageCode());
+        if (!isBinary(event) || !encodeBinary(record, event)) {
+            record.setInputParams(RecordingPolicy.truncate(JSON.toJSONString(event.getInput()), event.getMaxPayloadBytes()));
+            record.setOutputResult(RecordingPolicy.truncate(JSON.toJSONString(event.getOutput()), event.getMaxPayloadBytes()));
+        }
+        record.setExecutionTimeMs(event.getExecutionTime());
+        record.setStatus(event.getStatus());
+        record.setErrorMessage(event.getErrorMessage());
+        record.setTenantId(event.getTenantId());
+        record.setCreatedAt(event.getCreatedAt());
+        return record;
+    }
+
+    private boolean isBinary(RecordEvent event) {
+        return (event.getFormat() != null ? event.getFormat() : defaultFormat) == RecordFormat.BINARY;
+    }
+
+    /**
+     * @return false if the payload is over the size limit and has to be stored as truncated JSON instead
+     */
+    private boolean encodeBinary(RuleExecutionRecord record, RecordEvent event) {
+        FieldDictionary dictionary = event.getDictionary();
+        byte[] input = RecordCodec.encodeMap(event.getInput(), dictionary);
+        byte[] output = RecordCodec.encodeMap(event.getOutput(), dictionary);
+        if (!fits(input, event.getMaxPayloadBytes()) || !fits(output, event.getMaxPayloadBytes())) {
+            return false;
+        }
+        if (dictionary != null) {
+            recordSchemaRegistry.register(dictionary);
+            record.setSchemaHash(dictionary.getHash());
+        }
+        record.setInputParamsBin(input);
+        record.setOutputResultBin(output);
+        return true;
+    }
+
+    private static boolean fits(byte[] payload, int maxBytes) {
+        return payload == null || maxBytes <= 0 || payload.length <= maxBytes;
+    }
+}
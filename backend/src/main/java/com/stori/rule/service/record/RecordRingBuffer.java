@@ -0,0 +1,112 @@
+package com.stori.rule.service.record;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer / multi-consumer ring buffer.
+ * Each slot carries a sequence number that tells producers and consumers whether
+ * the slot is free or published, so neither side ever takes a lock.
+ */
+public class RecordRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    public RecordRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+        // Round up to a power of two so the slot index is a mask instead of a modulo
+        this.capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        this.slots = new AtomicReferenceArray<>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return false if the buffer is full
+     */
+    public boolean offer(E element) {
+        long pos = producerIndex.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (producerIndex.compareAndSet(pos, pos + 1)) {
+                    slots.lazySet(index, element);
+                    // Publishing the sequence makes the element visible to consumers
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = producerIndex.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = producerIndex.get();
+            }
+        }
+    }
+
+    /**
+     * @return the oldest element, or null if the buffer is empty
+     */
+    public E poll() {
+        long pos = consumerIndex.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (consumerIndex.compareAndSet(pos, pos + 1)) {
+                    E element = slots.get(index);
+                    slots.lazySet(index, null);
+                    // Hand the slot back to producers for the next lap
+                    sequences.set(index, pos + capacity);
+                    return element;
+                }
+                pos = consumerIndex.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                pos = consumerIndex.get();
+            }
+        }
+    }
+
+    /**
+     * Move up to maxElements into the sink
+     * @return number of elements moved
+     */
+    public int drainTo(List<? super E> sink, int maxElements) {
+        int drained = 0;
+        while (drained < maxElements) {
+            E element = poll();
+            if (element == null) break;
+            sink.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Approximate number of queued elements
+     */
+    public int size() {
+        long size = producerIndex.get() - consumerIndex.get();
+        if (size < 0) return 0;
+        return (int) Math.min(size, capacity);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,59 @@
+package com.stori.rule.service.record;
+
+import com.alibaba.fastjson.JSON;
+import com.stori.rule.entity.RecordSchema;
+import com.stori.rule.mapper.RecordSchemaMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persists field dictionaries of binary records so they can be decoded after the package changes
+ */
+@Slf4j
+@Component
+public class RecordSchemaRegistry {
+
+    @Autowired
+    private RecordSchemaMapper recordSchemaMapper;
+
+    // Cache FieldDictionary by hash, dictionaries never change once stored
+    private final Map<Long, FieldDictionary> dictionaryCache = new ConcurrentHashMap<>();
+
+    /**
+     * Store the dictionary unless it is already known
+     */
+    public void register(FieldDictionary dictionary) {
+        if (dictionaryCache.containsKey(dictionary.getHash())) return;
+        if (recordSchemaMapper.selectByHash(dictionary.getHash()) == null) {
+            RecordSchema schema = new RecordSchema();
+            schema.setSchemaHash(dictionary.getHash());
+            schema.setFieldNames(JSON.toJSONString(dictionary.getFields()));
+            try {
+                recordSchemaMapper.insert(schema);
+            } catch (DuplicateKeyException e) {
+                // Registered concurrently by another node
+            }
+        }
+        dictionaryCache.put(dictionary.getHash(), dictionary);
+    }
+
+    /**
+     * @return the dictionary, or null if the hash was never registered
+     */
+    public FieldDictionary get(Long hash) {
+        if (hash == null) return null;
+        return dictionaryCache.computeIfAbsent(hash, h -> {
+            RecordSchema schema = recordSchemaMapper.selectByHash(h);
+            if (schema == null) {
+                log.warn("Unknown record schema: {}", h);
+                return null;
+            }
+            return new FieldDictionary(JSON.parseArray(schema.getFieldNames(), String.class));
+        });
+    }
+}
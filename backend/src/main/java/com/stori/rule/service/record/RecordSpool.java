@@ -0,0 +1,503 @@
+package com.stori.rule.service.record;
+
+import com.alibaba.fastjson.JSON;
+import com.stori.rule.entity.FeatureRecord;
+import com.stori.rule.entity.RuleExecutionRecord;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Local write-ahead spool for execution records.
+ * Record drainers append to memory-mapped, fixed-size segment files; a shipper on its own thread
+ * batches them into the database and persists a checkpoint after each successful batch, so a backlog
+ * never holds up the shared scheduler. The shipper also flushes sealed segments and maps the next
+ * one ahead of time, so appends never wait on the disk.
+ * Records survive restarts and database outages. Delivery is at-least-once: a crash between a
+ * database commit and the checkpoint write re-ships that batch.
+ * <p>
+ * Entry layout: [int payloadLength][int crc32][byte kind][payload JSON]. A zero length marks
+ * unwritten space and -1 marks the end of a rolled segment.
+ */
+@Slf4j
+@Component
+public class RecordSpool {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int HEADER_BYTES = 9;
+    private static final int END_OF_SEGMENT = -1;
+    private static final byte KIND_FEATURE = 1;
+    private static final byte KIND_RULE = 2;
+
+    @Value("${srule.record.spool.enabled:true}")
+    private boolean enabled;
+
+    @Value("${srule.record.spool.dir:./data/record-spool}")
+    private String spoolDir;
+
+    @Value("${srule.record.spool.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${srule.record.spool.ship-batch-size:1000}")
+    private int shipBatchSize;
+
+    @Value("${srule.record.spool.ship-interval-ms:200}")
+    private long shipIntervalMs;
+
+    /** Unshipped records kept on disk before drainers stop appending, 0 for no limit */
+    @Value("${srule.record.spool.max-size-mb:4096}")
+    private long maxSizeMb;
+
+    @Autowired
+    private RecordBatchWriter recordBatchWriter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final class Position {
+        private final long segment;
+        private final int offset;
+
+        private Position(long segment, int offset) {
+            this.segment = segment;
+            this.offset = offset;
+        }
+
+        private boolean sameAs(Position other) {
+            return segment == other.segment && offset == other.offset;
+        }
+    }
+
+    private Path dir;
+    private int segmentSize;
+    private long maxBytes;
+
+    // Writer state, guarded by this
+    private long writeSegment;
+    private int writeOffset;
+    private FileChannel writeChannel;
+    private MappedByteBuffer writeBuffer;
+
+    // Next segment, mapped by the shipper ahead of the roll
+    private long spareSegment = -1;
+    private FileChannel spareChannel;
+    private MappedByteBuffer spareBuffer;
+
+    // Writer state is guarded by a lock rather than synchronized, which would pin virtual threads during file IO
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // End of the last complete append, the shipper never reads past it
+    private volatile Position published;
+
+    // Shipper state
+    private volatile Position checkpoint;
+    private long readSegment = -1;
+    private MappedByteBuffer readBuffer;
+    private ScheduledExecutorService shipper;
+
+    private final LongAdder shippedCount = new LongAdder();
+    private final LongAdder corruptCount = new LongAdder();
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) return;
+        dir = Paths.get(spoolDir).toAbsolutePath();
+        Files.createDirectories(dir);
+        segmentSize = segmentSizeMb * 1024 * 1024;
+        maxBytes = maxSizeMb * 1024 * 1024;
+
+        List<Long> segments = listSegments();
+        Position saved = readCheckpoint();
+        if (segments.isEmpty()) {
+            openWriteSegment(saved != null ? saved.segment : 0);
+        } else {
+            openWriteSegment(segments.get(segments.size() - 1));
+            int end = scanEnd(writeBuffer);
+            if (end < 0) {
+                // Last segment was sealed before its successor got created
+                openWriteSegment(writeSegment + 1);
+            } else {
+                writeOffset = end;
+            }
+        }
+        published = new Position(writeSegment, writeOffset);
+        checkpoint = saved != null ? saved : new Position(segments.isEmpty() ? writeSegment : segments.get(0), 0);
+
+        Gauge.builder("srule.record.spool.pending.segments", this, s -> s.published.segment - s.checkpoint.segment + 1)
+                .register(meterRegistry);
+        Gauge.builder("srule.record.spool.pending.bytes", this, RecordSpool::pendingBytes)
+                .register(meterRegistry);
+        FunctionCounter.builder("srule.record.spool.shipped", shippedCount, LongAdder::sum)
+                .register(meterRegistry);
+        FunctionCounter.builder("srule.record.spool.corrupt", corruptCount, LongAdder::sum)
+                .register(meterRegistry);
+
+        shipper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "record-spool-shipper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        shipper.scheduleWithFixedDelay(this::ship, shipIntervalMs, shipIntervalMs, TimeUnit.MILLISECONDS);
+        shipper.execute(this::prepareSpare);
+
+        log.info("Record spool opened at {}: write={}@{}, checkpoint={}@{}",
+                dir, writeSegment, writeOffset, checkpoint.segment, checkpoint.offset);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!enabled || writeChannel == null) return;
+        shipper.shutdown();
+        try {
+            // A batch in flight finishes, the rest is shipped after the restart
+            shipper.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeLock.lock();
+        try {
+            writeBuffer.force();
+            writeChannel.close();
+            if (spareChannel != null) {
+                spareChannel.close();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to close record spool segment {}", writeSegment, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether unshipped records have reached srule.record.spool.max-size-mb
+     */
+    public boolean isFull() {
+        return maxBytes > 0 && pendingBytes() >= maxBytes;
+    }
+
+    private long pendingBytes() {
+        Position head = published;
+        Position tail = checkpoint;
+        return (head.segment - tail.segment) * segmentSize + head.offset - tail.offset;
+    }
+
+    /**
+     * Append records to the spool. Returns once they are in the page cache, never waits on the database.
+     */
+    public void append(List<FeatureRecord> featureRecords, List<RuleExecutionRecord> ruleRecords) throws IOException {
+        // Serialized before taking the lock, so concurrent drainers only wait for the copy
+        int features = featureRecords.size();
+        List<byte[]> payloads = new ArrayList<>(features + ruleRecords.size());
+        for (FeatureRecord record : featureRecords) {
+            payloads.add(JSON.toJSONBytes(record));
+        }
+        for (RuleExecutionRecord record : ruleRecords) {
+            payloads.add(JSON.toJSONBytes(record));
+        }
+        writeLock.lock();
+        try {
+            for (int i = 0; i < payloads.size(); i++) {
+                appendEntry(i < features ? KIND_FEATURE : KIND_RULE, payloads.get(i));
+            }
+            published = new Position(writeSegment, writeOffset);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Ship spooled records to the database, batch by batch, until caught up or the database fails
+     */
+    private void ship() {
+        try {
+            while (shipBatch()) {
+                // Keep going while full batches are available
+            }
+        } catch (Exception e) {
+            // Thrown out of a scheduled task it would cancel all further runs
+            log.error("Record spool shipper failed, will retry", e);
+        }
+    }
+
+    private void appendEntry(byte kind, byte[] payload) throws IOException {
+        int entrySize = HEADER_BYTES + payload.length;
+        // Keep room for the end-of-segment marker
+        if (entrySize + 4 > segmentSize) {
+            corruptCount.increment();
+            log.error("Execution record of {} bytes exceeds spool segment size, dropped", payload.length);
+            return;
+        }
+        if (writeOffset + entrySize + 4 > segmentSize) {
+            roll();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(kind);
+        crc.update(payload);
+        writeBuffer.putInt(writeOffset + 4, (int) crc.getValue());
+        writeBuffer.put(writeOffset + 8, kind);
+        writeBuffer.put(writeOffset + HEADER_BYTES, payload);
+        // Length goes last so a torn write reads as unwritten space
+        writeBuffer.putInt(writeOffset, payload.length);
+        writeOffset += entrySize;
+    }
+
+    private void roll() throws IOException {
+        writeBuffer.putInt(writeOffset, END_OF_SEGMENT);
+        long sealedSegment = writeSegment;
+        FileChannel sealedChannel = writeChannel;
+        MappedByteBuffer sealedBuffer = writeBuffer;
+        if (spareSegment == writeSegment + 1) {
+            writeChannel = spareChannel;
+            writeBuffer = spareBuffer;
+            writeSegment = spareSegment;
+            writeOffset = 0;
+            spareSegment = -1;
+            spareChannel = null;
+            spareBuffer = null;
+        } else {
+            // The shipper has not mapped it yet
+            openWriteSegment(writeSegment + 1);
+        }
+        runOnShipper(() -> {
+            seal(sealedSegment, sealedChannel, sealedBuffer);
+            prepareSpare();
+        });
+    }
+
+    private void runOnShipper(Runnable task) {
+        try {
+            shipper.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            task.run();
+        }
+    }
+
+    private void seal(long segment, FileChannel channel, MappedByteBuffer buffer) {
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to flush record spool segment {}", segment, e);
+        }
+    }
+
+    /**
+     * Map the segment after the one being written, so the next roll does not wait for the file system
+     */
+    private void prepareSpare() {
+        long segment;
+        writeLock.lock();
+        try {
+            if (spareSegment == writeSegment + 1) return;
+            segment = writeSegment + 1;
+        } finally {
+            writeLock.unlock();
+        }
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(segmentPath(segment),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            writeLock.lock();
+            try {
+                if (writeSegment + 1 == segment && spareSegment != segment) {
+                    spareSegment = segment;
+                    spareChannel = channel;
+                    spareBuffer = buffer;
+                    channel = null;
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to map record spool segment {} ahead of time", segment, e);
+        } finally {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    log.debug("Failed to close record spool segment {}", segment, e);
+                }
+            }
+        }
+    }
+
+    private void openWriteSegment(long segment) throws IOException {
+        writeChannel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        writeBuffer = writeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        writeSegment = segment;
+        writeOffset = 0;
+    }
+
+    /**
+     * @return offset of the first unwritten byte, or -1 if the segment is sealed
+     */
+    private int scanEnd(MappedByteBuffer buffer) {
+        int offset = 0;
+        while (offset + HEADER_BYTES <= segmentSize) {
+            int length = buffer.getInt(offset);
+            if (length == END_OF_SEGMENT) return -1;
+            if (length <= 0 || offset + HEADER_BYTES + length > segmentSize) break;
+            offset += HEADER_BYTES + length;
+        }
+        return offset;
+    }
+
+    private boolean shipBatch() {
+        Position limit = published;
+        Position start = checkpoint;
+        long segment = start.segment;
+        int offset = start.offset;
+        List<FeatureRecord> featureRecords = new ArrayList<>();
+        List<RuleExecutionRecord> ruleRecords = new ArrayList<>();
+        int count = 0;
+
+        while (count < shipBatchSize) {
+            if (segment > limit.segment || (segment == limit.segment && offset >= limit.offset)) break;
+            MappedByteBuffer buffer = mapForRead(segment);
+            int length = buffer != null && offset + HEADER_BYTES <= segmentSize ? buffer.getInt(offset) : END_OF_SEGMENT;
+            if (length == END_OF_SEGMENT || length == 0 || offset + HEADER_BYTES + length > segmentSize) {
+                if (segment < limit.segment) {
+                    segment++;
+                    offset = 0;
+                    continue;
+                }
+                break;
+            }
+            if (length < 0) {
+                corruptCount.increment();
+                log.error("Corrupt record spool entry at {}@{}, skipping rest of segment", segment, offset);
+                segment++;
+                offset = 0;
+                continue;
+            }
+
+            byte kind = buffer.get(offset + 8);
+            byte[] payload = new byte[length];
+            buffer.get(offset + HEADER_BYTES, payload);
+            CRC32 crc = new CRC32();
+            crc.update(kind);
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                corruptCount.increment();
+                log.error("Checksum mismatch in record spool entry at {}@{}, skipped", segment, offset);
+            } else if (kind == KIND_FEATURE) {
+                featureRecords.add(JSON.parseObject(payload, FeatureRecord.class));
+            } else if (kind == KIND_RULE) {
+                ruleRecords.add(JSON.parseObject(payload, RuleExecutionRecord.class));
+            }
+            offset += HEADER_BYTES + length;
+            count++;
+        }
+
+        Position next = new Position(segment, offset);
+        if (!featureRecords.isEmpty() || !ruleRecords.isEmpty()) {
+            try {
+                recordBatchWriter.write(featureRecords, ruleRecords);
+            } catch (Exception e) {
+                log.warn("Failed to ship {} spooled records, will retry: {}",
+                        featureRecords.size() + ruleRecords.size(), e.getMessage());
+                return false;
+            }
+            shippedCount.add(featureRecords.size() + ruleRecords.size());
+        }
+        if (!next.sameAs(start)) {
+            commitCheckpoint(next);
+        }
+        return count >= shipBatchSize;
+    }
+
+    private MappedByteBuffer mapForRead(long segment) {
+        if (segment == readSegment && readBuffer != null) return readBuffer;
+        Path path = segmentPath(segment);
+        readSegment = segment;
+        readBuffer = null;
+        if (!Files.exists(path)) return null;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            readBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), segmentSize));
+        } catch (IOException e) {
+            log.error("Failed to map record spool segment {}", segment, e);
+        }
+        return readBuffer;
+    }
+
+    private void commitCheckpoint(Position position) {
+        try {
+            Path tmp = dir.resolve(CHECKPOINT_FILE + ".tmp");
+            Files.write(tmp, (position.segment + " " + position.offset).getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, dir.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // The batch is already in the database; a lost checkpoint only means it may be shipped again
+            log.error("Failed to persist record spool checkpoint", e);
+        }
+        checkpoint = position;
+
+        // Segments fully behind the checkpoint are no longer needed
+        for (Long segment : listSegments()) {
+            if (segment >= position.segment) break;
+            try {
+                Files.deleteIfExists(segmentPath(segment));
+            } catch (IOException e) {
+                log.warn("Failed to delete shipped record spool segment {}", segment, e);
+            }
+        }
+    }
+
+    private Position readCheckpoint() throws IOException {
+        Path path = dir.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) return null;
+        String[] parts = new String(Files.readAllBytes(path), StandardCharsets.UTF_8).trim().split(" ");
+        return new Position(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+    }
+
+    private List<Long> listSegments() {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.valueOf(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            log.error("Failed to list record spool segments in {}", dir, e);
+            return new ArrayList<>();
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return dir.resolve(String.format("%020d%s", segment, SEGMENT_SUFFIX));
+    }
+}
@@ -0,0 +1,290 @@
+package com.stori.rule.service.record;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.stori.rule.common.TenantContext;
+import com.stori.rule.mapper.RecordTableMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Day-partitioned storage for execution records.
+ * Each day gets its own table, e.g. rule_execution_record_20240131, created from the auto-table
+ * managed base table with CREATE TABLE ... LIKE so schema changes of the base table apply to new
+ * days. The base table keeps rows written before partitioning was enabled.
+ * <p>
+ * Partitioned rows get snowflake ids when they are created and take their createdAt from the id, so
+ * ids stay unique across tables and the day of an id names the one partition holding the row.
+ */
+@Slf4j
+@Component
+public class RecordTableManager {
+
+    public static final String RULE_TABLE = "rule_execution_record";
+    public static final String FEATURE_TABLE = "feature_record";
+
+    private static final List<String> BASE_TABLES = Arrays.asList(RULE_TABLE, FEATURE_TABLE);
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final Pattern PARTITION_SUFFIX = Pattern.compile("_\\d{8}");
+    // Epoch of MyBatis-Plus IdWorker snowflake ids
+    private static final long SNOWFLAKE_EPOCH = 1288834974657L;
+
+    @Value("${srule.record.partition.enabled:false}")
+    private boolean enabled;
+
+    @Value("${srule.record.partition.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${srule.record.partition.precreate-days:1}")
+    private int precreateDays;
+
+    @Value("${srule.record.partition.purge-batch-size:5000}")
+    private int purgeBatchSize;
+
+    @Value("${srule.record.partition.count-cache-ttl-ms:60000}")
+    private long countTtlMs;
+
+    @Value("${srule.record.partition.count-cache-size:1000}")
+    private int countCacheSize;
+
+    @Autowired
+    private RecordTableMapper recordTableMapper;
+
+    private static final class CachedCount {
+        private final long count;
+        private final long countedAt;
+
+        private CachedCount(long count, long countedAt) {
+            this.count = count;
+            this.countedAt = countedAt;
+        }
+    }
+
+    // Existing partitions by base table, sorted by day
+    private final Map<String, NavigableSet<String>> partitions = new ConcurrentHashMap<>();
+    private final ReentrantLock createLock = new ReentrantLock();
+    // Row counts of closed tables by tenant, table and filter
+    private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Table for rows created at the given time, created on first use
+     */
+    public String tableFor(String base, LocalDateTime createdAt) {
+        if (!enabled) return base;
+        String table = partitionName(base, createdAt.toLocalDate());
+        NavigableSet<String> existing = partitionsOf(base);
+        if (!existing.contains(table)) {
+            // A lock rather than synchronized, so virtual threads waiting on the DDL do not pin their carrier
+            createLock.lock();
+            try {
+                if (!existing.contains(table)) {
+                    recordTableMapper.createTableLike(table, base);
+                    existing.add(table);
+                    log.info("Created record partition {}", table);
+                }
+            } finally {
+                createLock.unlock();
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Tables that may hold rows created in the range, newest first. Null bounds are open.
+     */
+    public List<String> tablesFor(String base, LocalDateTime startTime, LocalDateTime endTime) {
+        if (!enabled) return Collections.singletonList(base);
+        String from = startTime == null ? null : partitionName(base, startTime.toLocalDate());
+        String to = endTime == null ? null : partitionName(base, endTime.toLocalDate());
+        List<String> tables = new ArrayList<>();
+        for (String table : partitionsOf(base).descendingSet()) {
+            if ((to == null || table.compareTo(to) <= 0) && (from == null || table.compareTo(from) >= 0)) {
+                tables.add(table);
+            }
+        }
+        tables.add(base);
+        return tables;
+    }
+
+    /**
+     * Tables that may hold the row with this id: the partition of the id's day, then the base table
+     * for rows written before partitioning
+     */
+    public List<String> tablesForId(String base, Long id) {
+        if (!enabled || id == null) return Collections.singletonList(base);
+        String table = partitionName(base, createdAtOf(id).toLocalDate());
+        return partitionsOf(base).contains(table) ? Arrays.asList(table, base) : Collections.singletonList(base);
+    }
+
+    /**
+     * Creation time encoded in a snowflake id, used as createdAt of partitioned rows
+     */
+    public static LocalDateTime createdAtOf(long id) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli((id >> 22) + SNOWFLAKE_EPOCH), ZoneId.systemDefault());
+    }
+
+    /**
+     * Rows of one table, ordered newest first
+     */
+    @FunctionalInterface
+    public interface TableQuery<T> {
+        List<T> select(String table, long offset, long limit);
+    }
+
+    /**
+     * Offset paging across tables ordered newest first. Per-table counts locate the tables that
+     * hold the requested page, so only those are read. Counts of past days and the base table are
+     * cached by filter for a short time, only today's partition is counted on every request.
+     *
+     * @param filter identifies the conditions the counter applies, part of the count cache key
+     */
+    public <T> Page<T> page(List<String> tables, long current, long size, String filter,
+                            ToLongFunction<String> counter, TableQuery<T> query) {
+        long offset = (current - 1) * size;
+        long total = 0;
+        List<T> records = new ArrayList<>();
+        for (String table : tables) {
+            long count = count(table, filter, counter);
+            if (records.size() < size && offset < total + count) {
+                records.addAll(query.select(table, Math.max(0, offset - total), size - records.size()));
+            }
+            total += count;
+        }
+        Page<T> page = new Page<>(current, size, total);
+        page.setRecords(records);
+        return page;
+    }
+
+    /**
+     * Keyset rows of one table, ordered newest first
+     */
+    @FunctionalInterface
+    public interface TableScan<T> {
+        List<T> select(String table, int limit);
+    }
+
+    /**
+     * Keyset read across tables ordered newest first; each table query is a bounded index range
+     */
+    public <T> List<T> scan(List<String> tables, int limit, TableScan<T> scan) {
+        List<T> records = new ArrayList<>();
+        for (String table : tables) {
+            if (records.size() >= limit) break;
+            records.addAll(scan.select(table, limit - records.size()));
+        }
+        return records;
+    }
+
+    private long count(String table, String filter, ToLongFunction<String> counter) {
+        if (!isClosed(table)) {
+            return counter.applyAsLong(table);
+        }
+        String key = TenantContext.getTenantId() + "|" + table + "|" + filter;
+        long now = System.currentTimeMillis();
+        CachedCount cached = counts.get(key);
+        if (cached != null && now - cached.countedAt < countTtlMs) {
+            return cached.count;
+        }
+        long count = counter.applyAsLong(table);
+        if (counts.size() >= countCacheSize) {
+            // Entries only live for the TTL, dropping them all is cheaper than tracking recency
+            counts.clear();
+        }
+        counts.put(key, new CachedCount(count, now));
+        return count;
+    }
+
+    /**
+     * Past days only change when spooled records arrive late, the base table no longer gets rows
+     */
+    private boolean isClosed(String table) {
+        String base = table.length() > 9 && PARTITION_SUFFIX.matcher(table.substring(table.length() - 9)).matches()
+                ? table.substring(0, table.length() - 9) : null;
+        return base == null || table.compareTo(partitionName(base, LocalDate.now())) < 0;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        maintain();
+    }
+
+    /**
+     * Refresh the partition list, pre-create upcoming days and drop days past retention.
+     * Rows of the base table past retention are deleted in batches.
+     */
+    @Scheduled(cron = "${srule.record.partition.maintain-cron:0 5 * * * *}")
+    public void maintain() {
+        if (!enabled) return;
+        LocalDate today = LocalDate.now();
+        for (String base : BASE_TABLES) {
+            try {
+                NavigableSet<String> existing = new ConcurrentSkipListSet<>();
+                for (String table : recordTableMapper.selectTableNames(base + "_")) {
+                    if (PARTITION_SUFFIX.matcher(table.substring(base.length())).matches()) {
+                        existing.add(table);
+                    }
+                }
+                partitions.put(base, existing);
+
+                for (int i = 0; i <= precreateDays; i++) {
+                    tableFor(base, today.plusDays(i).atStartOfDay());
+                }
+
+                String oldest = partitionName(base, today.minusDays(retentionDays));
+                for (String table : new ArrayList<>(existing.headSet(oldest, false))) {
+                    recordTableMapper.dropTable(table);
+                    existing.remove(table);
+                    log.info("Dropped record partition {} past {} days retention", table, retentionDays);
+                }
+                purge(base, today.minusDays(retentionDays).atStartOfDay());
+            } catch (Exception e) {
+                log.error("Failed to maintain record partitions of {}", base, e);
+            }
+        }
+    }
+
+    private void purge(String base, LocalDateTime before) {
+        long deleted = 0;
+        int n;
+        do {
+            n = recordTableMapper.deleteBefore(base, before, purgeBatchSize);
+            deleted += n;
+        } while (n >= purgeBatchSize);
+        if (deleted > 0) {
+            log.info("Deleted {} rows of {} past {} days retention", deleted, base, retentionDays);
+        }
+    }
+
+    private NavigableSet<String> partitionsOf(String base) {
+        return partitions.computeIfAbsent(base, k -> new ConcurrentSkipListSet<>());
+    }
+
+    private static String partitionName(String base, LocalDate day) {
+        return base + "_" + DAY_FORMAT.format(day);
+    }
+}
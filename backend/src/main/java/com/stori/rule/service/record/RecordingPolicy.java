@@ -0,0 +1,183 @@
+package com.stori.rule.service.record;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-package execution recording policy, read from the "recording" key of RulePackage.extensionData:
+ * <pre>
+ * {"recording": {"sampleRate": 0.1, "alwaysRecordFailures": true, "includeFields": ["a"],
+ *                "excludeFields": ["b"], "maxPayloadBytes": 4096, "diffOutput": true, "recordFeatures": true,
+ *                "format": "BINARY"}}
+ * </pre>
+ * Missing keys keep the defaults, which record everything like before.
+ */
+@Slf4j
+@Getter
+public final class RecordingPolicy {
+
+    /** Shared by every package without a policy, which is why instances are immutable */
+    public static final RecordingPolicy DEFAULT = new RecordingPolicy(new JSONObject());
+
+    private static final String TRUNCATED_PREVIEW_KEY = ",\"preview\":";
+
+    /** Fraction of successful executions to record, 0..1 */
+    private final double sampleRate;
+    /** Record failed executions even when not sampled */
+    private final boolean alwaysRecordFailures;
+    /** Only these input/output fields are recorded, empty means all */
+    private final Set<String> includeFields;
+    /** These input/output fields are never recorded */
+    private final Set<String> excludeFields;
+    /** Serialized payloads above this size are truncated, 0 means unlimited */
+    private final int maxPayloadBytes;
+    /** Record only the output fields added or changed by the execution */
+    private final boolean diffOutput;
+    /** Record feature values */
+    private final boolean recordFeatures;
+    /** Storage format, null uses srule.record.format */
+    private final RecordFormat format;
+
+    private RecordingPolicy(JSONObject recording) {
+        this.sampleRate = valueOr(recording.getDouble("sampleRate"), 1.0);
+        this.alwaysRecordFailures = valueOr(recording.getBoolean("alwaysRecordFailures"), true);
+        this.includeFields = fields(recording.getJSONArray("includeFields"));
+        this.excludeFields = fields(recording.getJSONArray("excludeFields"));
+        this.maxPayloadBytes = valueOr(recording.getInteger("maxPayloadBytes"), 0);
+        this.diffOutput = valueOr(recording.getBoolean("diffOutput"), false);
+        this.recordFeatures = valueOr(recording.getBoolean("recordFeatures"), true);
+        this.format = recording.getObject("format", RecordFormat.class);
+    }
+
+    public static RecordingPolicy parse(String extensionData) {
+        if (extensionData == null || extensionData.isEmpty()) return DEFAULT;
+        try {
+            JSONObject ext = JSON.parseObject(extensionData);
+            JSONObject recording = ext == null ? null : ext.getJSONObject("recording");
+            if (recording == null) return DEFAULT;
+            return new RecordingPolicy(recording);
+        } catch (Exception e) {
+            log.warn("Invalid recording policy in extension data, using default: {}", e.getMessage());
+            return DEFAULT;
+        }
+    }
+
+    private static <T> T valueOr(T value, T defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    private static Set<String> fields(JSONArray values) {
+        if (values == null || values.isEmpty()) return Collections.emptySet();
+        Set<String> fields = new HashSet<>();
+        for (Object value : values) {
+            if (value != null) fields.add(value.toString());
+        }
+        return Collections.unmodifiableSet(fields);
+    }
+
+    /**
+     * Sampling decision, taken once per execution
+     */
+    public boolean sample() {
+        return sampleRate >= 1.0 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    public boolean isFieldRecorded(String field) {
+        return (includeFields.isEmpty() || includeFields.contains(field)) && !excludeFields.contains(field);
+    }
+
+    /**
+     * Copy of the recorded fields of a map, or the map itself when no field list is configured
+     */
+    public Map<String, Object> filter(Map<String, Object> values) {
+        if (values == null || (includeFields.isEmpty() && excludeFields.isEmpty())) return values;
+        Map<String, Object> filtered = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            if (isFieldRecorded(entry.getKey())) {
+                filtered.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return filtered;
+    }
+
+    /**
+     * Recorded output fields, limited to those the execution added or changed when diffing
+     */
+    public Map<String, Object> output(Map<String, Object> input, Map<String, Object> output) {
+        if (output == null) return null;
+        if (!diffOutput || input == null) {
+            // Output is the live execution map, always hand a copy to the pipeline
+            Map<String, Object> filtered = filter(output);
+            return filtered == output ? new LinkedHashMap<>(output) : filtered;
+        }
+        Map<String, Object> diff = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : output.entrySet()) {
+            String key = entry.getKey();
+            if (isFieldRecorded(key) && (!input.containsKey(key) || !Objects.equals(input.get(key), entry.getValue()))) {
+                diff.put(key, entry.getValue());
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * Replace a serialized payload over maxBytes UTF-8 bytes with a JSON marker that fits in them:
+     * {"_truncated":true,"originalBytes":n,"preview":"start of the payload"}. Stored payloads stay
+     * valid JSON; the preview never splits a character. Only a maxBytes too small for the bare marker
+     * lets the result exceed it.
+     */
+    public static String truncate(String payload, int maxBytes) {
+        // A char is at most 3 UTF-8 bytes, so short payloads skip the encoding
+        if (payload == null || maxBytes <= 0 || payload.length() * 3 <= maxBytes) return payload;
+        int size = utf8Length(payload);
+        if (size <= maxBytes) return payload;
+
+        String head = "{\"_truncated\":true,\"originalBytes\":" + size;
+        int budget = maxBytes - head.length() - TRUNCATED_PREVIEW_KEY.length() - 1;
+        // Escaping makes the preview longer than its characters, so the longest prefix that fits is searched
+        int low = 0;
+        int high = Math.min(payload.length(), Math.max(budget, 0));
+        String preview = null;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cut = mid > 0 && Character.isHighSurrogate(payload.charAt(mid - 1)) ? mid - 1 : mid;
+            String candidate = JSON.toJSONString(payload.substring(0, cut));
+            if (utf8Length(candidate) <= budget) {
+                preview = candidate;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return preview == null ? head + "}" : head + TRUNCATED_PREVIEW_KEY + preview + "}";
+    }
+
+    private static int utf8Length(String value) {
+        int bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+}
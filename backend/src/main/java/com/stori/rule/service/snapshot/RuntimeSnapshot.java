@@ -0,0 +1,40 @@
+package com.stori.rule.service.snapshot;
+
+import com.stori.rule.dto.PackageSnapshot;
+import com.stori.rule.entity.Feature;
+import com.stori.rule.entity.RuleDefinition;
+import com.stori.rule.entity.RuleVariable;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What executing a package version needs, without the authoring data of {@link PackageSnapshot}
+ */
+@Data
+public class RuntimeSnapshot {
+    private List<String> drls = new ArrayList<>();
+    private List<RuleVariable> variables = new ArrayList<>();
+    private Map<Long, Feature> featureMap = new HashMap<>();
+
+    public static RuntimeSnapshot of(PackageSnapshot snapshot) {
+        RuntimeSnapshot runtime = new RuntimeSnapshot();
+        if (snapshot.getRuleDefinitions() != null) {
+            for (RuleDefinition rule : snapshot.getRuleDefinitions()) {
+                if (rule.getDrlContent() != null && !rule.getDrlContent().isEmpty()) {
+                    runtime.drls.add(rule.getDrlContent());
+                }
+            }
+        }
+        if (snapshot.getVariables() != null) {
+            runtime.variables.addAll(snapshot.getVariables());
+        }
+        if (snapshot.getFeatureMap() != null) {
+            runtime.featureMap.putAll(snapshot.getFeatureMap());
+        }
+        return runtime;
+    }
+}
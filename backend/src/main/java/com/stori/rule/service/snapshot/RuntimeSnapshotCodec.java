@@ -0,0 +1,97 @@
+package com.stori.rule.service.snapshot;
+
+import com.alibaba.fastjson.JSON;
+import com.stori.rule.entity.Feature;
+import com.stori.rule.entity.RuleVariable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Deflated binary form of a {@link RuntimeSnapshot}.
+ * <p>
+ * Layout: [int magic][byte format], then length-prefixed sections: DRL texts, variables as JSON and
+ * features as id plus JSON. Decoding inflates as it reads and parses one entry at a time, so the
+ * whole snapshot never exists as one decompressed document.
+ */
+public final class RuntimeSnapshotCodec {
+
+    private static final int MAGIC = 0x53525353;
+    private static final byte FORMAT = 1;
+    private static final int BUFFER_SIZE = 8192;
+
+    private RuntimeSnapshotCodec() {
+    }
+
+    public static byte[] encode(RuntimeSnapshot snapshot) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(BUFFER_SIZE);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater, BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT);
+            out.writeInt(snapshot.getDrls().size());
+            for (String drl : snapshot.getDrls()) {
+                writeBytes(out, drl.getBytes(StandardCharsets.UTF_8));
+            }
+            out.writeInt(snapshot.getVariables().size());
+            for (RuleVariable variable : snapshot.getVariables()) {
+                writeBytes(out, JSON.toJSONBytes(variable));
+            }
+            out.writeInt(snapshot.getFeatureMap().size());
+            for (Map.Entry<Long, Feature> entry : snapshot.getFeatureMap().entrySet()) {
+                out.writeLong(entry.getKey());
+                writeBytes(out, JSON.toJSONBytes(entry.getValue()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    public static RuntimeSnapshot decode(byte[] data) {
+        RuntimeSnapshot snapshot = new RuntimeSnapshot();
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)))) {
+            if (in.readInt() != MAGIC || in.readByte() != FORMAT) {
+                throw new IllegalArgumentException("Unknown runtime snapshot format");
+            }
+            int drls = in.readInt();
+            for (int i = 0; i < drls; i++) {
+                snapshot.getDrls().add(new String(readBytes(in), StandardCharsets.UTF_8));
+            }
+            int variables = in.readInt();
+            for (int i = 0; i < variables; i++) {
+                snapshot.getVariables().add(JSON.parseObject(readBytes(in), RuleVariable.class));
+            }
+            int features = in.readInt();
+            for (int i = 0; i < features; i++) {
+                long id = in.readLong();
+                snapshot.getFeatureMap().put(id, JSON.parseObject(readBytes(in), Feature.class));
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corrupt runtime snapshot", e);
+        }
+        return snapshot;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -16,10 +16,23 @@ public class JwtUtils {
         Map<String, Object> payload = new HashMap<>();
         payload.put("uid", userId);
         payload.put("sub", username);
+        payload.put("iat", System.currentTimeMillis() / 1000);
         payload.put("exp", System.currentTimeMillis() + 1000 * 60 * 60 * 24); // 24 hours
         return JWTUtil.createToken(payload, KEY);
     }
 
+    /**
+     * Parses and verifies a token once, null if it is malformed or its signature does not match
+     */
+    public static JWT parse(String token) {
+        try {
+            JWT jwt = JWTUtil.parseToken(token);
+            return jwt.setKey(KEY).verify() ? jwt : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     public static boolean validateToken(String token) {
         try {
             return JWTUtil.verify(token, KEY);
@@ -29,7 +42,18 @@ public class JwtUtils {
     }
 
     public static Long getUserId(String token) {
-        final JWT jwt = JWTUtil.parseToken(token);
+        return getUserId(JWTUtil.parseToken(token));
+    }
+
+    public static Long getUserId(JWT jwt) {
         return Long.valueOf(jwt.getPayload("uid").toString());
     }
+
+    /**
+     * Issue time in seconds, 0 for tokens issued before it was recorded
+     */
+    public static long getIssuedAt(JWT jwt) {
+        Object iat = jwt.getPayload("iat");
+        return iat instanceof Number ? ((Number) iat).longValue() : 0;
+    }
 }
@@ -0,0 +1,185 @@
+package com.stori.rule.utils;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Path expression of RuleExecutionHelper parsed once into literal, map key and list index segments.
+ * <p>
+ * Generated rules look expressions up with {@link #of(String)} on a constant string, so parsing
+ * happens on first use and every later access only walks the pre-resolved segments.
+ */
+public final class PathExpression {
+
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?");
+    private static final Pattern SEGMENT_SPLIT = Pattern.compile("\\.|(?=\\[)");
+    // Expressions come from rule content, the cap only guards against callers building them dynamically
+    private static final int MAX_CACHED = 10_000;
+    private static final Map<String, PathExpression> CACHE = new ConcurrentHashMap<>();
+
+    /** Literal value when the expression is a constant */
+    private final boolean literal;
+    private final Object value;
+    /** Map keys (String) and list indices (Integer) from the root context */
+    private final Object[] segments;
+
+    /** Parent path and leaf of an assignment */
+    private final PathExpression parent;
+    private final String leafKey;
+    private final Integer leafIndex;
+
+    private PathExpression(boolean literal, Object value, Object[] segments,
+                           PathExpression parent, String leafKey, Integer leafIndex) {
+        this.literal = literal;
+        this.value = value;
+        this.segments = segments;
+        this.parent = parent;
+        this.leafKey = leafKey;
+        this.leafIndex = leafIndex;
+    }
+
+    public static PathExpression of(String expression) {
+        PathExpression compiled = CACHE.get(expression);
+        if (compiled == null) {
+            compiled = compile(expression);
+            if (CACHE.size() < MAX_CACHED) {
+                CACHE.putIfAbsent(expression, compiled);
+            }
+        }
+        return compiled;
+    }
+
+    private static PathExpression compile(String expression) {
+        // Assignment target: the whole expression, or the last ".key" or "[index]" below its parent path
+        PathExpression parent = null;
+        String leafKey = null;
+        Integer leafIndex = null;
+        boolean simple = !expression.contains("[") && !expression.contains(".");
+        int lastDot = expression.lastIndexOf(".");
+        int lastBracket = expression.lastIndexOf("[");
+        if (simple) {
+            leafKey = expression;
+        } else if (lastDot > lastBracket) {
+            parent = of(expression.substring(0, lastDot));
+            leafKey = expression.substring(lastDot + 1);
+        } else if (expression.length() > lastBracket + 1) {
+            parent = of(expression.substring(0, lastBracket));
+            String index = expression.substring(lastBracket + 1, expression.length() - 1);
+            leafKey = stripQuotes(index);
+            try {
+                leafIndex = Integer.parseInt(index);
+            } catch (NumberFormatException e) {
+                leafIndex = null;
+            }
+        }
+
+        Object literal = literalValue(expression);
+        if (literal != null) {
+            return new PathExpression(true, literal, null, parent, leafKey, leafIndex);
+        }
+        if (simple) {
+            return new PathExpression(false, null, new Object[]{expression}, null, leafKey, null);
+        }
+
+        Object[] segments;
+        try {
+            List<Object> parsed = new ArrayList<>();
+            for (String part : SEGMENT_SPLIT.split(expression)) {
+                if (part.startsWith("[")) {
+                    String key = part.substring(1, part.indexOf("]"));
+                    if (key.startsWith("'") || key.startsWith("\"")) {
+                        parsed.add(stripQuotes(key));
+                    } else {
+                        parsed.add(Integer.parseInt(key));
+                    }
+                } else {
+                    parsed.add(part);
+                }
+            }
+            segments = parsed.toArray();
+        } catch (RuntimeException e) {
+            // Malformed brackets never resolve to a value
+            segments = null;
+        }
+        return new PathExpression(false, null, segments, parent, leafKey, leafIndex);
+    }
+
+    private static Object literalValue(String expression) {
+        if (expression.length() >= 2
+                && (expression.startsWith("\"") && expression.endsWith("\"")
+                || expression.startsWith("'") && expression.endsWith("'"))) {
+            return expression.substring(1, expression.length() - 1);
+        }
+        if ("true".equalsIgnoreCase(expression)) return Boolean.TRUE;
+        if ("false".equalsIgnoreCase(expression)) return Boolean.FALSE;
+        if (NUMBER.matcher(expression).matches()) {
+            if (expression.contains(".")) return Double.valueOf(expression);
+            try {
+                return Integer.valueOf(expression);
+            } catch (NumberFormatException e) {
+                // Out of int range, looked up as a key like any other name
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static String stripQuotes(String key) {
+        return key.replace("'", "").replace("\"", "");
+    }
+
+    public Object get(Map<String, Object> context) {
+        if (literal) return value;
+        if (context == null || segments == null) return null;
+        Object current = context;
+        try {
+            for (Object segment : segments) {
+                if (current == null) return null;
+                if (segment instanceof String) {
+                    if (!(current instanceof Map)) return null;
+                    current = ((Map<?, ?>) current).get(segment);
+                } else {
+                    int index = (Integer) segment;
+                    if (current instanceof List) {
+                        current = ((List<?>) current).get(index);
+                    } else if (current.getClass().isArray()) {
+                        current = Array.get(current, index);
+                    } else {
+                        return null;
+                    }
+                }
+            }
+            return current;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void set(Map<String, Object> context, Object newValue) {
+        if (context == null || leafKey == null) return;
+        if (parent == null) {
+            context.put(leafKey, newValue);
+            return;
+        }
+        Object target = parent.get(context);
+        if (target instanceof Map) {
+            ((Map<String, Object>) target).put(leafKey, newValue);
+        } else if (target instanceof List && leafIndex != null && leafIndex >= 0) {
+            List<Object> list = (List<Object>) target;
+            try {
+                if (leafIndex < list.size()) {
+                    list.set(leafIndex, newValue);
+                } else if (leafIndex == list.size()) {
+                    list.add(newValue);
+                }
+            } catch (RuntimeException e) {
+                // Immutable list, leave it as it is
+            }
+        }
+    }
+}
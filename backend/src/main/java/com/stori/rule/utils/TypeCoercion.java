@@ -0,0 +1,180 @@
+package com.stori.rule.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Target types of variable mappings with a converter per source class, resolved once per class.
+ * <p>
+ * Values already of the target type are returned as they are, and strings are parsed without
+ * exceptions; input that does not parse is returned unchanged, as RuleExecutionHelper.convert always did.
+ * The rule converters resolve the constant when generating DRL, so rules call it directly.
+ */
+public enum TypeCoercion {
+
+    INTEGER {
+        @Override
+        Function<Object, Object> resolve(Class<?> type) {
+            if (type == Integer.class) return Function.identity();
+            if (Number.class.isAssignableFrom(type)) return v -> ((Number) v).intValue();
+            return v -> orOriginal(v, parseInteger(text(v), true));
+        }
+    },
+    LONG {
+        @Override
+        Function<Object, Object> resolve(Class<?> type) {
+            if (type == Long.class) return Function.identity();
+            if (Number.class.isAssignableFrom(type)) return v -> ((Number) v).longValue();
+            return v -> orOriginal(v, parseInteger(text(v), false));
+        }
+    },
+    DOUBLE {
+        @Override
+        Function<Object, Object> resolve(Class<?> type) {
+            if (type == Double.class) return Function.identity();
+            if (Number.class.isAssignableFrom(type)) return v -> ((Number) v).doubleValue();
+            return v -> orOriginal(v, parseDouble(text(v)));
+        }
+    },
+    BOOLEAN {
+        @Override
+        Function<Object, Object> resolve(Class<?> type) {
+            if (type == Boolean.class) return Function.identity();
+            return v -> Boolean.valueOf(text(v));
+        }
+    },
+    STRING {
+        @Override
+        Function<Object, Object> resolve(Class<?> type) {
+            if (type == String.class) return Function.identity();
+            return Object::toString;
+        }
+    },
+    /** Unknown or missing type, values pass through */
+    OBJECT {
+        @Override
+        Function<Object, Object> resolve(Class<?> type) {
+            return Function.identity();
+        }
+    };
+
+    private static final Map<String, TypeCoercion> BY_NAME = new HashMap<>();
+
+    static {
+        for (TypeCoercion coercion : values()) {
+            BY_NAME.put(coercion.name(), coercion);
+        }
+        BY_NAME.put("INT", INTEGER);
+        BY_NAME.put("FLOAT", DOUBLE);
+    }
+
+    private final ClassValue<Function<Object, Object>> converters = new ClassValue<Function<Object, Object>>() {
+        @Override
+        protected Function<Object, Object> computeValue(Class<?> type) {
+            return resolve(type);
+        }
+    };
+
+    abstract Function<Object, Object> resolve(Class<?> type);
+
+    public Object apply(Object value) {
+        if (value == null) return null;
+        return converters.get(value.getClass()).apply(value);
+    }
+
+    /**
+     * Coercion of a variable type name, case-insensitive, OBJECT when unknown
+     */
+    public static TypeCoercion of(String targetType) {
+        if (targetType == null) return OBJECT;
+        TypeCoercion coercion = BY_NAME.get(targetType);
+        if (coercion == null) {
+            coercion = BY_NAME.getOrDefault(targetType.toUpperCase(), OBJECT);
+        }
+        return coercion;
+    }
+
+    private static String text(Object value) {
+        return value instanceof String ? (String) value : value.toString();
+    }
+
+    private static Object orOriginal(Object value, Object converted) {
+        return converted != null ? converted : value;
+    }
+
+    /**
+     * Decimal integer with an optional sign, as Integer.valueOf / Long.valueOf accept it, ASCII digits only
+     *
+     * @return Integer or Long, null when not a number or out of range
+     */
+    static Object parseInteger(String s, boolean asInt) {
+        int len = s.length();
+        if (len == 0) return null;
+        int i = 0;
+        boolean negative = false;
+        char first = s.charAt(0);
+        if (first == '-' || first == '+') {
+            if (len == 1) return null;
+            negative = first == '-';
+            i = 1;
+        }
+        // Accumulated negatively so MIN_VALUE parses, like Long.parseLong
+        long limit = asInt ? (negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE) : (negative ? Long.MIN_VALUE : -Long.MAX_VALUE);
+        long multLimit = limit / 10;
+        long result = 0;
+        for (; i < len; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result < multLimit) return null;
+            result *= 10;
+            if (result < limit + digit) return null;
+            result -= digit;
+        }
+        long parsed = negative ? result : -result;
+        return asInt ? (Object) (int) parsed : (Object) parsed;
+    }
+
+    /**
+     * Decimal floating point as Double.valueOf accepts it, hexadecimal notation aside
+     *
+     * @return Double, null when not a number
+     */
+    static Double parseDouble(String s) {
+        String t = s.trim();
+        int len = t.length();
+        int i = 0;
+        if (i < len && (t.charAt(i) == '-' || t.charAt(i) == '+')) i++;
+        if (t.startsWith("NaN", i) && i + 3 == len || t.startsWith("Infinity", i) && i + 8 == len) {
+            return Double.valueOf(t);
+        }
+        int digits = 0;
+        while (i < len && isDigit(t.charAt(i))) {
+            i++;
+            digits++;
+        }
+        if (i < len && t.charAt(i) == '.') {
+            i++;
+            while (i < len && isDigit(t.charAt(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) return null;
+        if (i < len && (t.charAt(i) == 'e' || t.charAt(i) == 'E')) {
+            i++;
+            if (i < len && (t.charAt(i) == '-' || t.charAt(i) == '+')) i++;
+            int exponentDigits = 0;
+            while (i < len && isDigit(t.charAt(i))) {
+                i++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) return null;
+        }
+        if (i < len && "dDfF".indexOf(t.charAt(i)) >= 0) i++;
+        return i == len ? Double.valueOf(t) : null;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
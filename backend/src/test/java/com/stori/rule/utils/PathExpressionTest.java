@@ -0,0 +1,141 @@
+package com.stori.rule.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PathExpressionTest {
+
+    private static Map<String, Object> context() {
+        Map<String, Object> address = new HashMap<>();
+        address.put("city", "Shanghai");
+        Map<String, Object> user = new HashMap<>();
+        user.put("name", "alice");
+        user.put("address", address);
+        Map<String, Object> first = new HashMap<>();
+        first.put("id", 1);
+        Map<String, Object> second = new HashMap<>();
+        second.put("id", 2);
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("age", 30);
+        context.put("user", user);
+        context.put("items", new ArrayList<>(Arrays.asList(first, second)));
+        context.put("scores", new int[]{7, 8, 9});
+        context.put("frozen", Collections.unmodifiableList(Arrays.asList("a", "b")));
+        return context;
+    }
+
+    @Test
+    void literals() {
+        assertEquals("abc", PathExpression.of("'abc'").get(context()));
+        assertEquals("abc", PathExpression.of("\"abc\"").get(context()));
+        assertEquals(Boolean.TRUE, PathExpression.of("TRUE").get(context()));
+        assertEquals(Boolean.FALSE, PathExpression.of("false").get(null));
+        assertEquals(42, PathExpression.of("42").get(context()));
+        assertEquals(-42, PathExpression.of("-42").get(context()));
+        assertEquals(1.5, PathExpression.of("1.5").get(context()));
+    }
+
+    @Test
+    void loneQuoteAndOutOfRangeNumbersResolveAsKeys() {
+        Map<String, Object> context = new HashMap<>();
+        context.put("'", "quote");
+        context.put("99999999999", "big");
+        assertEquals("quote", PathExpression.of("'").get(context));
+        assertEquals("big", PathExpression.of("99999999999").get(context));
+    }
+
+    @Test
+    void dottedPaths() {
+        assertEquals(30, PathExpression.of("age").get(context()));
+        assertEquals("alice", PathExpression.of("user.name").get(context()));
+        assertEquals("Shanghai", PathExpression.of("user.address.city").get(context()));
+        assertNull(PathExpression.of("user.missing.city").get(context()));
+        assertNull(PathExpression.of("age.value").get(context()));
+        assertNull(PathExpression.of("age").get(null));
+    }
+
+    @Test
+    void bracketPaths() {
+        assertEquals(2, PathExpression.of("items[1].id").get(context()));
+        assertEquals(8, PathExpression.of("scores[1]").get(context()));
+        assertEquals("b", PathExpression.of("frozen[1]").get(context()));
+        assertNull(PathExpression.of("items[5].id").get(context()));
+        assertNull(PathExpression.of("items[-1]").get(context()));
+        assertNull(PathExpression.of("user[0]").get(context()));
+    }
+
+    @Test
+    void quotedBracketPaths() {
+        assertEquals("alice", PathExpression.of("user['name']").get(context()));
+        assertEquals("alice", PathExpression.of("user[\"name\"]").get(context()));
+        assertEquals("Shanghai", PathExpression.of("user['address'].city").get(context()));
+        assertEquals(1, PathExpression.of("items[0]['id']").get(context()));
+        assertNull(PathExpression.of("items['id']").get(context()));
+    }
+
+    @Test
+    void malformedBracketsResolveToNull() {
+        assertNull(PathExpression.of("items[x]").get(context()));
+        assertNull(PathExpression.of("items[1").get(context()));
+    }
+
+    @Test
+    void sameExpressionIsCompiledOnce() {
+        assertSame(PathExpression.of("user.address.city"), PathExpression.of("user.address.city"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void setKeys() {
+        Map<String, Object> context = context();
+        PathExpression.of("score").set(context, 10);
+        PathExpression.of("user.name").set(context, "bob");
+        PathExpression.of("user['level']").set(context, "gold");
+        PathExpression.of("items[0].id").set(context, 100);
+        PathExpression.of("missing.name").set(context, "ignored");
+
+        assertEquals(10, context.get("score"));
+        Map<String, Object> user = (Map<String, Object>) context.get("user");
+        assertEquals("bob", user.get("name"));
+        assertEquals("gold", user.get("level"));
+        assertEquals(100, PathExpression.of("items[0].id").get(context));
+        assertNull(context.get("missing"));
+    }
+
+    @Test
+    void setListIndices() {
+        Map<String, Object> context = new HashMap<>();
+        List<Object> list = new ArrayList<>(Arrays.asList("a", "b"));
+        context.put("list", list);
+
+        PathExpression.of("list[0]").set(context, "x");
+        assertEquals(Arrays.asList("x", "b"), list);
+
+        // Index equal to the size appends
+        PathExpression.of("list[2]").set(context, "c");
+        assertEquals(Arrays.asList("x", "b", "c"), list);
+
+        // Past the end or negative is left alone
+        PathExpression.of("list[5]").set(context, "z");
+        PathExpression.of("list[-1]").set(context, "z");
+        PathExpression.of("list['0']").set(context, "z");
+        assertEquals(Arrays.asList("x", "b", "c"), list);
+
+        // Immutable lists are left as they are
+        Map<String, Object> frozenContext = context();
+        PathExpression.of("frozen[0]").set(frozenContext, "z");
+        PathExpression.of("frozen[2]").set(frozenContext, "z");
+        assertEquals(Arrays.asList("a", "b"), frozenContext.get("frozen"));
+    }
+}
@@ -0,0 +1,129 @@
+package com.stori.rule.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TypeCoercionTest {
+
+    private static final String[] INTEGER_INPUTS = {
+            "0", "7", "+7", "-7", "007", "-0", "2147483647", "-2147483648", "2147483648", "-2147483649",
+            "9223372036854775807", "-9223372036854775808", "9223372036854775808", "-9223372036854775809",
+            "99999999999999999999", "", "-", "+", "+-1", "1-", "12a", " 1", "1 ", "1.0", "1e3", "0x10"
+    };
+
+    private static final String[] DOUBLE_INPUTS = {
+            "0", "1", "-1", "+1", "1.5", "-.5", ".5", "5.", "1e10", "1E10", "1.5e-3", "-2.5E+3", "1f", "1F",
+            "2d", "2D", "1.5e3f", " 3.0 ", "\t4\n", "NaN", "-NaN", "Infinity", "-Infinity", "+Infinity",
+            "1e400", "4.9e-325", "", " ", ".", "-", "e5", "1e", "1e+", "1.0x", "1ff", "1.2.3", "Infinityf", "nan"
+    };
+
+    @Test
+    void parseIntegerMatchesIntegerValueOf() {
+        for (String s : INTEGER_INPUTS) {
+            assertEquals(integerValueOf(s), TypeCoercion.parseInteger(s, true), s);
+        }
+    }
+
+    @Test
+    void parseLongMatchesLongValueOf() {
+        for (String s : INTEGER_INPUTS) {
+            assertEquals(longValueOf(s), TypeCoercion.parseInteger(s, false), s);
+        }
+    }
+
+    @Test
+    void parseIntegerBounds() {
+        assertEquals(Integer.MAX_VALUE, TypeCoercion.parseInteger("2147483647", true));
+        assertEquals(Integer.MIN_VALUE, TypeCoercion.parseInteger("-2147483648", true));
+        assertEquals(Integer.MAX_VALUE, TypeCoercion.parseInteger("+2147483647", true));
+        assertNull(TypeCoercion.parseInteger("2147483648", true));
+        assertNull(TypeCoercion.parseInteger("-2147483649", true));
+        assertEquals(Long.MAX_VALUE, TypeCoercion.parseInteger("9223372036854775807", false));
+        assertEquals(Long.MIN_VALUE, TypeCoercion.parseInteger("-9223372036854775808", false));
+        assertNull(TypeCoercion.parseInteger("9223372036854775808", false));
+        assertNull(TypeCoercion.parseInteger("-9223372036854775809", false));
+    }
+
+    @Test
+    void parseIntegerRejectsNonAsciiDigits() {
+        // Integer.valueOf accepts any Unicode digit, mapped variables only ever carry ASCII
+        assertNull(TypeCoercion.parseInteger("\u0661\u0662", true));
+        assertNull(TypeCoercion.parseInteger("\uff11", false));
+    }
+
+    @Test
+    void parseDoubleMatchesDoubleValueOf() {
+        for (String s : DOUBLE_INPUTS) {
+            assertEquals(doubleValueOf(s), TypeCoercion.parseDouble(s), s);
+        }
+    }
+
+    @Test
+    void parseDoubleRejectsHexadecimal() {
+        // Not accepted since the scanner replaced Double.valueOf
+        assertNull(TypeCoercion.parseDouble("0x1p3"));
+        assertNull(TypeCoercion.parseDouble("0x1.8p1"));
+    }
+
+    @Test
+    void applyConvertsByTargetType() {
+        assertEquals(42, TypeCoercion.INTEGER.apply("42"));
+        assertEquals(42, TypeCoercion.INTEGER.apply(42L));
+        assertEquals(3, TypeCoercion.INTEGER.apply(3.9));
+        assertEquals(42L, TypeCoercion.LONG.apply("42"));
+        assertEquals(42L, TypeCoercion.LONG.apply(42));
+        assertEquals(1.5, TypeCoercion.DOUBLE.apply("1.5"));
+        assertEquals(2.0, TypeCoercion.DOUBLE.apply(2));
+        assertEquals(Boolean.TRUE, TypeCoercion.BOOLEAN.apply("TRUE"));
+        assertEquals(Boolean.FALSE, TypeCoercion.BOOLEAN.apply("yes"));
+        assertEquals("7", TypeCoercion.STRING.apply(7));
+        assertNull(TypeCoercion.INTEGER.apply(null));
+    }
+
+    @Test
+    void applyReturnsUnparsableInputUnchanged() {
+        String text = "abc";
+        assertSame(text, TypeCoercion.INTEGER.apply(text));
+        assertSame(text, TypeCoercion.LONG.apply(text));
+        assertSame(text, TypeCoercion.DOUBLE.apply(text));
+        String overflow = "2147483648";
+        assertSame(overflow, TypeCoercion.INTEGER.apply(overflow));
+    }
+
+    @Test
+    void ofResolvesNamesAndAliases() {
+        assertSame(TypeCoercion.INTEGER, TypeCoercion.of("INTEGER"));
+        assertSame(TypeCoercion.INTEGER, TypeCoercion.of("int"));
+        assertSame(TypeCoercion.DOUBLE, TypeCoercion.of("Float"));
+        assertSame(TypeCoercion.STRING, TypeCoercion.of("string"));
+        assertSame(TypeCoercion.OBJECT, TypeCoercion.of("DATE"));
+        assertSame(TypeCoercion.OBJECT, TypeCoercion.of(null));
+    }
+
+    private static Integer integerValueOf(String s) {
+        try {
+            return Integer.valueOf(s);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Long longValueOf(String s) {
+        try {
+            return Long.valueOf(s);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Double doubleValueOf(String s) {
+        try {
+            return Double.valueOf(s);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
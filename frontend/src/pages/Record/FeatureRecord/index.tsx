@@ -1,10 +1,21 @@
-import { listFeatureRecords } from '@/services/RecordController';
+import { listFeatureRecordsByCursor } from '@/services/RecordController';
 import { PageContainer, ProTable, ProColumns } from '@ant-design/pro-components';
 import React from 'react';
 import { useIntl } from '@umijs/max';
+import { useCursorRequest } from '../useCursorRequest';
 
 const FeatureRecordList: React.FC = () => {
     const intl = useIntl();
+    const request = useCursorRequest((cursor, limit, filters) =>
+        listFeatureRecordsByCursor({
+            cursor,
+            limit,
+            reqId: filters.reqId,
+            featureName: filters.featureName,
+            startTime: filters.startTime,
+            endTime: filters.endTime,
+        }),
+    );
     const columns: ProColumns<any>[] = [
         {
             title: intl.formatMessage({ id: 'pages.records.id', defaultMessage: 'ID' }),
@@ -40,6 +51,15 @@ const FeatureRecordList: React.FC = () => {
             search: false,
             sorter: true,
         },
+        {
+            title: intl.formatMessage({ id: 'pages.records.createdAt', defaultMessage: 'Created At' }),
+            dataIndex: 'createdAtRange',
+            valueType: 'dateTimeRange',
+            hideInTable: true,
+            search: {
+                transform: (value: string[]) => ({ startTime: value[0], endTime: value[1] }),
+            },
+        },
     ];
 
     return (
@@ -50,19 +70,7 @@ const FeatureRecordList: React.FC = () => {
                 search={{
                     labelWidth: 'auto',
                 }}
-                request={async (params, sort) => {
-                    const msg = await listFeatureRecords({
-                        current: params.current,
-                        pageSize: params.pageSize,
-                        reqId: params.reqId,
-                        featureName: params.featureName,
-                    });
-                    return {
-                        data: msg.data?.records || [],
-                        success: msg.code === 200,
-                        total: msg.data?.total || 0,
-                    };
-                }}
+                request={request}
                 columns={columns}
             />
         </PageContainer>
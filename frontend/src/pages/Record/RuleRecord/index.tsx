@@ -1,11 +1,23 @@
-import { listRuleRecords } from '@/services/RecordController';
+import { listRuleRecordsByCursor } from '@/services/RecordController';
 import { PageContainer, ProTable, ProColumns } from '@ant-design/pro-components';
 import { Tag } from 'antd';
 import React from 'react';
 import { useIntl } from '@umijs/max';
+import { useCursorRequest } from '../useCursorRequest';
 
 const RuleRecordList: React.FC = () => {
     const intl = useIntl();
+    const request = useCursorRequest((cursor, limit, filters) =>
+        listRuleRecordsByCursor({
+            cursor,
+            limit,
+            reqId: filters.reqId,
+            packageCode: filters.packageCode,
+            status: filters.status,
+            startTime: filters.startTime,
+            endTime: filters.endTime,
+        }),
+    );
     const columns: ProColumns<any>[] = [
         {
             title: intl.formatMessage({ id: 'pages.records.id', defaultMessage: 'ID' }),
@@ -69,6 +81,15 @@ const RuleRecordList: React.FC = () => {
             search: false,
             sorter: true,
         },
+        {
+            title: intl.formatMessage({ id: 'pages.records.createdAt', defaultMessage: 'Created At' }),
+            dataIndex: 'createdAtRange',
+            valueType: 'dateTimeRange',
+            hideInTable: true,
+            search: {
+                transform: (value: string[]) => ({ startTime: value[0], endTime: value[1] }),
+            },
+        },
     ];
 
     return (
@@ -79,20 +100,7 @@ const RuleRecordList: React.FC = () => {
                 search={{
                     labelWidth: 'auto',
                 }}
-                request={async (params, sort) => {
-                    const msg = await listRuleRecords({
-                        current: params.current,
-                        pageSize: params.pageSize,
-                        reqId: params.reqId,
-                        packageCode: params.packageCode,
-                        status: params.status,
-                    });
-                    return {
-                        data: msg.data?.records || [],
-                        success: msg.code === 200,
-                        total: msg.data?.total || 0,
-                    };
-                }}
+                request={request}
                 columns={columns}
             />
         </PageContainer>
@@ -0,0 +1,41 @@
+import { useRef } from 'react';
+
+export interface CursorPage<T> {
+    records: T[];
+    nextCursor?: string;
+    hasMore: boolean;
+}
+
+/**
+ * Adapts keyset-paginated record APIs to ProTable paging.
+ * Cursors of visited pages are remembered, so next/previous navigation never uses offsets.
+ */
+export function useCursorRequest<T>(
+    fetchPage: (cursor: string | undefined, limit: number, filters: Record<string, any>) => Promise<API.Result<CursorPage<T>>>,
+) {
+    const cursors = useRef<Record<number, string | undefined>>({});
+    const filterKey = useRef<string>();
+
+    return async (params: Record<string, any>) => {
+        const { current = 1, pageSize = 20, ...filters } = params;
+        const key = JSON.stringify({ pageSize, ...filters });
+        if (key !== filterKey.current) {
+            cursors.current = {};
+            filterKey.current = key;
+        }
+        // Pages without a known cursor fall back to the first page
+        const page = current === 1 || cursors.current[current] !== undefined ? current : 1;
+        const msg = await fetchPage(cursors.current[page], pageSize, filters);
+        const records = msg.data?.records || [];
+        if (msg.data?.hasMore) {
+            cursors.current[page + 1] = msg.data.nextCursor;
+        }
+        const lastKnownPage = Math.max(page, ...Object.keys(cursors.current).map(Number));
+        return {
+            data: records,
+            success: msg.code === 200,
+            // Exact totals would need a count; expose one more page while more records exist
+            total: Math.max((page - 1) * pageSize + records.length, lastKnownPage > page ? (lastKnownPage - 1) * pageSize + 1 : 0),
+        };
+    };
+}
@@ -39,6 +39,7 @@ import { useUndoRedo } from '../hooks/useUndoRedo';
 import { getDescendants, hasCycle } from '../utils/graph';
 import { useGraphOperations } from '../hooks/useGraphOperations';
 import { useKeyboardShortcuts } from '../hooks/useKeyboardShortcuts';
+import { NodeProfileContext, useNodeProfile } from '../hooks/useNodeProfile';
 
 import './EditorContent.less';
 
@@ -82,6 +83,7 @@ const EditorContent = () => {
     const draftCheckResolved = useRef(false);
 
     const { takeSnapshot, undo, redo, canUndo, canRedo } = useUndoRedo();
+    const { profiling, profiles, toggleProfiling, resetProfile } = useNodeProfile(packageCode);
 
     // Auto Layout
     const onLayout = useCallback((direction = 'LR', nodesOverride?: Node[], edgesOverride?: Edge[]) => {
@@ -713,6 +715,7 @@ const EditorContent = () => {
         <div style={{ height: '80vh', width: '100%', border: '1px solid #f0f0f0', display: 'flex' }}>
             <NodePalette onDragStart={onDragStart} />
             <div style={{ flex: 1 }} onDrop={onDrop} onDragOver={onDragOver}>
+                <NodeProfileContext.Provider value={profiles}>
                 <ReactFlow
                     nodes={nodes}
                     edges={edges}
@@ -767,6 +770,9 @@ const EditorContent = () => {
                         onVersions={onVersions}
                         onEdit={onEdit}
                         toggleFullscreen={toggleFullscreen}
+                        onToggleProfiling={toggleProfiling}
+                        onResetProfile={resetProfile}
+                        profiling={profiling}
                         isFullscreen={isFullscreen}
                         canUndo={canUndo}
                         canRedo={canRedo}
@@ -798,6 +804,7 @@ const EditorContent = () => {
                         </div>
                     )}
                 </ReactFlow>
+                </NodeProfileContext.Provider>
             </div>
             {packageId && (
                 <>
@@ -15,7 +15,9 @@ import {
     RedoOutlined,
     CloudUploadOutlined,
     HistoryOutlined,
-    EditOutlined
+    EditOutlined,
+    FireOutlined,
+    ClearOutlined
 } from '@ant-design/icons';
 import PermissionGate from '@/components/PermissionGate';
 
@@ -33,6 +35,9 @@ interface EditorToolbarProps {
     onVersions: () => void;
     onEdit: () => void;
     toggleFullscreen: () => void;
+    onToggleProfiling: () => void;
+    onResetProfile: () => void;
+    profiling: boolean;
     isFullscreen: boolean;
     canUndo: boolean;
     canRedo: boolean;
@@ -67,6 +72,9 @@ const EditorToolbar: React.FC<EditorToolbarProps> = ({
     onVersions,
     onEdit,
     toggleFullscreen,
+    onToggleProfiling,
+    onResetProfile,
+    profiling,
     isFullscreen,
     canUndo,
     canRedo,
@@ -141,6 +149,22 @@ const EditorToolbar: React.FC<EditorToolbarProps> = ({
                         </Tooltip>
                     </PermissionGate>
                 </Space.Compact>
+
+                <PermissionGate permission="PACKAGE_UPDATE">
+                    <Space.Compact>
+                        <Tooltip title={profiling ? "Stop Profiling" : "Profile Nodes"}>
+                            <ToolbarButton
+                                icon={<FireOutlined />}
+                                type={profiling ? 'primary' : 'default'}
+                                danger={profiling}
+                                onClick={onToggleProfiling}
+                            />
+                        </Tooltip>
+                        <Tooltip title="Reset Profile">
+                            <ToolbarButton icon={<ClearOutlined />} onClick={onResetProfile} />
+                        </Tooltip>
+                    </Space.Compact>
+                </PermissionGate>
             </Space>
         </Panel >
     );
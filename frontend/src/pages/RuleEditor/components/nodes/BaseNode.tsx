@@ -1,9 +1,10 @@
-import React from 'react';
+import React, { useContext } from 'react';
 import { Handle, Position, NodeProps } from 'reactflow';
-import { Dropdown, MenuProps, Typography, message } from 'antd';
+import { Dropdown, MenuProps, Tooltip, Typography, message } from 'antd';
 import { PlusOutlined, DeleteOutlined, CopyOutlined, UpOutlined, DownOutlined, EditOutlined } from '@ant-design/icons';
 
 import { useIntl } from '@umijs/max';
+import { NodeProfileContext } from '../../hooks/useNodeProfile';
 
 interface BaseNodeProps extends NodeProps {
     children: React.ReactNode;
@@ -14,6 +15,7 @@ interface BaseNodeProps extends NodeProps {
 export const BaseNode = (props: BaseNodeProps) => {
     const { id, data, selected, children, style, sourceHandles } = props;
     const intl = useIntl();
+    const profile = useContext(NodeProfileContext)[id];
 
     const handleMenuClick = (e: any) => {
         console.log('BaseNode handleMenuClick:', e.key, id);
@@ -131,6 +133,9 @@ export const BaseNode = (props: BaseNodeProps) => {
         }
     };
 
+    // Heat from red (hot) to green (cold) by share of profiled time
+    const heatColor = profile ? `hsl(${Math.round(120 * (1 - Math.min(1, profile.heat * 2)))}, 90%, 50%)` : undefined;
+
     return (
         <div style={{ position: 'relative' }}>
             {data.type !== 'START' && <Handle type="target" position={Position.Left} className="custom-node-handle" style={{ background: 'var(--primary-color)' }} />}
@@ -158,7 +163,9 @@ export const BaseNode = (props: BaseNodeProps) => {
                         width: 'fit-content',
                         boxShadow: selected
                             ? 'var(--neon-glow)'
-                            : '0 4px 12px rgba(0,0,0,0.1)',
+                            : profile
+                                ? `0 0 ${8 + Math.round(profile.heat * 24)}px ${heatColor}`
+                                : '0 4px 12px rgba(0,0,0,0.1)',
                         transition: 'all 0.2s cubic-bezier(0.4, 0, 0.2, 1)',
                         transform: selected ? 'translateY(-4px)' : 'translateY(0)',
                         // overflow: 'hidden', // Removed to allow dropdowns to overflow if needed
@@ -203,7 +210,13 @@ export const BaseNode = (props: BaseNodeProps) => {
                                 </Typography.Text>
                             )}
                         </div>
-
+                        {profile && (
+                            <Tooltip title={`Fired ${profile.fireCount} times, matches ${profile.matchCount}, fire ${profile.fireTimeMs.toFixed(2)} ms (max ${profile.maxFireTimeMs.toFixed(2)} ms), eval ${profile.evalTimeMs.toFixed(2)} ms`}>
+                                <span style={{ fontSize: 11, color: heatColor, whiteSpace: 'nowrap' }}>
+                                    {profile.fireCount}× {(profile.heat * 100).toFixed(0)}%
+                                </span>
+                            </Tooltip>
+                        )}
                     </div>
 
                     {/* Content */}
@@ -0,0 +1,59 @@
+import { createContext, useCallback, useEffect, useState } from 'react';
+import { message } from 'antd';
+import { getNodeProfile, resetNodeProfile, setProfiling } from '@/services/MetricsController';
+
+const REFRESH_INTERVAL_MS = 5000;
+
+/**
+ * Profiled statistics by node id, empty when the overlay is off
+ */
+export const NodeProfileContext = createContext<Record<string, API.NodeProfile>>({});
+
+export const useNodeProfile = (packageCode?: string) => {
+    const [profiling, setProfilingState] = useState(false);
+    const [profiles, setProfiles] = useState<Record<string, API.NodeProfile>>({});
+
+    const refresh = useCallback(async () => {
+        if (!packageCode) return;
+        const res = await getNodeProfile({ packageCode });
+        if (res.data) {
+            const byNode: Record<string, API.NodeProfile> = {};
+            res.data.nodes.forEach((node) => {
+                byNode[node.nodeId] = node;
+            });
+            setProfiles(byNode);
+            setProfilingState(res.data.enabled);
+        }
+    }, [packageCode]);
+
+    useEffect(() => {
+        refresh();
+    }, [refresh]);
+
+    // Heat follows live traffic while profiling
+    useEffect(() => {
+        if (!profiling) return;
+        const timer = setInterval(refresh, REFRESH_INTERVAL_MS);
+        return () => clearInterval(timer);
+    }, [profiling, refresh]);
+
+    const toggleProfiling = useCallback(async () => {
+        if (!packageCode) return;
+        const enabled = !profiling;
+        await setProfiling({ packageCode, enabled });
+        setProfilingState(enabled);
+        if (enabled) {
+            message.success('Profiling enabled, executions of this package are now profiled per node');
+        } else {
+            setProfiles({});
+        }
+    }, [packageCode, profiling]);
+
+    const resetProfile = useCallback(async () => {
+        if (!packageCode) return;
+        await resetNodeProfile({ packageCode });
+        setProfiles({});
+    }, [packageCode]);
+
+    return { profiling, profiles, toggleProfiling, resetProfile };
+};
@@ -0,0 +1,37 @@
+import { request } from '@umijs/max';
+
+export async function getExecutionRollups(
+    params: {
+        packageCode: string;
+        versionId?: number;
+        startTime?: string;
+        endTime?: string;
+        intervalMinutes?: number;
+    },
+) {
+    return request<API.Result<API.RollupPoint[]>>('/api/metrics/rollups', {
+        method: 'GET',
+        params,
+    });
+}
+
+export async function getNodeProfile(params: { packageCode: string; versionId?: number }) {
+    return request<API.Result<API.PackageProfile>>('/api/metrics/profile', {
+        method: 'GET',
+        params,
+    });
+}
+
+export async function setProfiling(params: { packageCode: string; enabled: boolean }) {
+    return request<API.Result<void>>('/api/metrics/profile/enable', {
+        method: 'POST',
+        params,
+    });
+}
+
+export async function resetNodeProfile(params: { packageCode: string }) {
+    return request<API.Result<void>>('/api/metrics/profile', {
+        method: 'DELETE',
+        params,
+    });
+}
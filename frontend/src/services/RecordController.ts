@@ -6,6 +6,8 @@ export async function listFeatureRecords(
         pageSize?: number;
         reqId?: string;
         featureName?: string;
+        startTime?: string;
+        endTime?: string;
     },
 ) {
     return request<API.Result<API.Page<API.FeatureRecord>>>('/api/records/features', {
@@ -21,6 +23,8 @@ export async function listRuleRecords(
         reqId?: string;
         packageCode?: string;
         status?: string;
+        startTime?: string;
+        endTime?: string;
     },
 ) {
     return request<API.Result<API.Page<API.RuleExecutionRecord>>>('/api/records/rules', {
@@ -29,6 +33,39 @@ export async function listRuleRecords(
     });
 }
 
+export async function listFeatureRecordsByCursor(
+    params: {
+        cursor?: string;
+        limit?: number;
+        reqId?: string;
+        featureName?: string;
+        startTime?: string;
+        endTime?: string;
+    },
+) {
+    return request<API.Result<API.CursorPage<API.FeatureRecord>>>('/api/records/features/cursor', {
+        method: 'GET',
+        params,
+    });
+}
+
+export async function listRuleRecordsByCursor(
+    params: {
+        cursor?: string;
+        limit?: number;
+        reqId?: string;
+        packageCode?: string;
+        status?: string;
+        startTime?: string;
+        endTime?: string;
+    },
+) {
+    return request<API.Result<API.CursorPage<API.RuleExecutionRecord>>>('/api/records/rules/cursor', {
+        method: 'GET',
+        params,
+    });
+}
+
 export async function getRuleRecord(id: number) {
     return request<API.Result<API.RuleExecutionRecord>>(`/api/records/rules/${id}`, {
         method: 'GET',
@@ -212,6 +212,42 @@ declare namespace API {
     current: number;
   }
 
+  interface NodeProfile {
+    nodeId: string;
+    fireCount: number;
+    matchCount: number;
+    cancelCount: number;
+    fireTimeMs: number;
+    avgFireTimeMs: number;
+    maxFireTimeMs: number;
+    evalTimeMs: number;
+    heat: number;
+  }
+
+  interface PackageProfile {
+    packageCode: string;
+    versionId?: number;
+    enabled: boolean;
+    nodes: NodeProfile[];
+  }
+
+  interface RollupPoint {
+    time: string;
+    execCount: number;
+    failCount: number;
+    avgTimeMs: number;
+    p50TimeMs: number;
+    p95TimeMs: number;
+    p99TimeMs: number;
+    maxTimeMs: number;
+  }
+
+  interface CursorPage<T> {
+    records: T[];
+    nextCursor?: string;
+    hasMore: boolean;
+  }
+
   interface FeatureRecord {
     id: number;
     reqId: string;